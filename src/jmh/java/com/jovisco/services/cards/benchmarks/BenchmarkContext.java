@@ -0,0 +1,42 @@
+package com.jovisco.services.cards.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jovisco.services.cards.CardsApplication;
+
+/**
+ * Starts the cards application for benchmarks: on the dev profile with a fresh embedded
+ * H2 database, without web server, SQL logging, cloud bus and card cache - so that every
+ * service call reaches the database. The outbox relay does not run - there is no broker. Properties passed in (as "name=value") override these
+ * settings.
+ */
+final class BenchmarkContext {
+
+  private BenchmarkContext() {
+  }
+
+  static ConfigurableApplicationContext start(String... properties) {
+
+    // passed as command line arguments, as these take precedence over the application's yml files
+    var args = new ArrayList<>(List.of(
+        "spring.main.web-application-type=none",
+        "spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.show-sql=false",
+        "spring.cloud.bus.enabled=false",
+        "logging.level.root=warn",
+        "logging.level.com.jovisco=warn",
+        "cards.cache.enabled=false",
+        "cards.outbox.poll-interval=1h",
+        "build.version=benchmark"));
+    args.addAll(List.of(properties));
+
+    return new SpringApplicationBuilder(CardsApplication.class)
+        .profiles("dev")
+        .run(args.stream().map(arg -> "--" + arg).toArray(String[]::new));
+  }
+}
@@ -0,0 +1,147 @@
+package com.jovisco.services.cards.benchmarks;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.ledger.LedgerSnapshotter;
+import com.jovisco.services.cards.services.CardsService;
+
+/**
+ * Card ledger against H2, seeded with millions of entries - a few hundred thousand of them on a
+ * single (hot) card. Compares reading the hot card's balance from its snapshot plus the entries
+ * posted since, against summing up its full history. Each read runs next to a thread posting
+ * charges and credits (each updating a card and appending to the ledger) - which also keeps
+ * H2 from answering the reads from its query cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CardLedgerBenchmark {
+
+  static final int CARDS = 1_000;
+  static final int ENTRIES = 2_000_000;
+  static final int HOT_CARD_ENTRIES = 500_000;
+
+  ConfigurableApplicationContext context;
+
+  CardsService cardsService;
+
+  JdbcTemplate jdbcTemplate;
+
+  TransactionTemplate readOnlyTransaction;
+
+  List<String> mobileNumbers;
+
+  String hotMobileNumber;
+
+  long hotCardId;
+
+  @Setup
+  public void setUp() {
+
+    // snapshots are taken explicitly below, not in between by the scheduler
+    context = BenchmarkContext.start("cards.ledger.snapshot-interval=PT1H");
+    cardsService = context.getBean(CardsService.class);
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+    readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    readOnlyTransaction.setReadOnly(true);
+
+    mobileNumbers = IntStream.range(0, CARDS)
+        .mapToObj(n -> String.format("+4917%010d", n))
+        .toList();
+    cardsService.createCards(mobileNumbers.stream().map(CreateCardDto::new).toList());
+    hotMobileNumber = mobileNumbers.get(0);
+    hotCardId = jdbcTemplate.queryForObject("select id from cards where mobile_number = ?", Long.class,
+        hotMobileNumber);
+
+    seedEntries();
+
+    // fold the seeded history into the balance snapshots
+    var folded = context.getBean(LedgerSnapshotter.class).snapshot();
+    System.out.printf("%nFolded %d ledger entries, %d of them of the hot card%n", folded, HOT_CARD_ENTRIES);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  @Group("snapshot")
+  public long balanceFromSnapshot() {
+    return cardsService.fetchLedgerBalance(hotMobileNumber);
+  }
+
+  @Benchmark
+  @Group("snapshot")
+  public void postToSnapshot() {
+    post();
+  }
+
+  @Benchmark
+  @Group("fullHistory")
+  public Long balanceFromFullHistory() {
+    return readOnlyTransaction.execute(status -> jdbcTemplate.queryForObject(
+        "select coalesce(sum(amount), 0) from card_ledger where card_id = ?", Long.class, hotCardId));
+  }
+
+  @Benchmark
+  @Group("fullHistory")
+  public void postToFullHistory() {
+    post();
+  }
+
+  private void post() {
+
+    // charge and credit again, so that the card's limit is never exceeded
+    var mobileNumber = mobileNumbers.get(ThreadLocalRandom.current().nextInt(1, CARDS));
+    cardsService.chargeCard(mobileNumber, 10);
+    cardsService.creditCard(mobileNumber, 10);
+  }
+
+  private void seedEntries() {
+
+    // written directly, in batches - settled an hour ago, so that all of them are folded
+    var postedAt = Timestamp.valueOf(LocalDateTime.now().minusHours(1));
+    var cardIds = jdbcTemplate.queryForList("select id from cards where id <> ?", Long.class, hotCardId);
+    var random = ThreadLocalRandom.current();
+    var batch = new ArrayList<Object[]>();
+    for (int n = 0; n < ENTRIES; n++) {
+      var cardId = n < HOT_CARD_ENTRIES ? hotCardId : cardIds.get(random.nextInt(cardIds.size()));
+      var amount = n % 2 == 0 ? 10L : -10L;
+      batch.add(new Object[] { cardId, amount > 0 ? "CHARGE" : "CREDIT", amount, postedAt });
+      if (batch.size() == 10_000 || n == ENTRIES - 1) {
+        jdbcTemplate.batchUpdate("""
+            insert into card_ledger (card_id, entry_type, amount, posted_at, posted_by)
+            values (?, ?, ?, ?, 'BENCHMARK')""", batch);
+        batch.clear();
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.jovisco.services.cards.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jovisco.services.cards.batching.CardLookupBatcher;
+import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.services.CardsService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Concurrent lookups of different cards, each with a query of its own (window 0) against resolved
+ * in batches collected within windows of different sizes. Reports throughput and the latency
+ * distribution (p50, p99, ...) - batching trades latency of up to the window for fewer queries,
+ * which pays off where round trips to the database are expensive. The average batch size is
+ * printed per window.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(64)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CardLookupBatchingBenchmark {
+
+  static final int CARDS = 10_000;
+
+  // batching window in microseconds, 0 for no batching
+  @Param({ "0", "500", "2000", "5000" })
+  int windowMicros;
+
+  ConfigurableApplicationContext context;
+
+  CardsService cardsService;
+
+  List<String> mobileNumbers;
+
+  @Setup
+  public void setUp() {
+
+    context = BenchmarkContext.start(
+        "cards.lookup.batching.enabled=" + (windowMicros > 0),
+        "cards.lookup.batching.window=" + windowMicros + "us",
+        "spring.datasource.hikari.maximum-pool-size=16");
+    cardsService = context.getBean(CardsService.class);
+
+    mobileNumbers = IntStream.range(0, CARDS)
+        .mapToObj(n -> String.format("+4917%010d", n))
+        .toList();
+    cardsService.createCards(mobileNumbers.stream().map(CreateCardDto::new).toList());
+  }
+
+  @TearDown
+  public void tearDown() {
+
+    var batchSizes = context.getBean(MeterRegistry.class).find(CardLookupBatcher.BATCH_SIZE_METRIC).summary();
+    if (batchSizes != null && batchSizes.count() > 0) {
+      System.out.printf("%nWindow %d us: %d batches, %.1f lookups per batch on average%n",
+          windowMicros, batchSizes.count(), batchSizes.mean());
+    }
+    context.close();
+  }
+
+  @Benchmark
+  public CardDto fetchCard() {
+    return cardsService.fetchCard(mobileNumbers.get(ThreadLocalRandom.current().nextInt(CARDS)));
+  }
+}
@@ -0,0 +1,94 @@
+package com.jovisco.services.cards.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jovisco.services.cards.dtos.CardLookupResultDto;
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.dtos.LookupCardsDto;
+import com.jovisco.services.cards.services.CardsService;
+
+/**
+ * Fetching a customer view of several cards: one lookup against the same number of single fetches,
+ * against the embedded H2 database with the card cache turned off. Single fetches are measured
+ * without the HTTP round trip each of them costs a caller.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CardLookupBenchmark {
+
+  static final int CARDS = 10_000;
+
+  @Param({ "10", "100" })
+  int size;
+
+  ConfigurableApplicationContext context;
+
+  CardsService cardsService;
+
+  List<String> mobileNumbers;
+
+  @Setup
+  public void setUp() {
+
+    context = BenchmarkContext.start();
+    cardsService = context.getBean(CardsService.class);
+
+    mobileNumbers = IntStream.range(0, CARDS)
+        .mapToObj(n -> String.format("+4917%010d", n))
+        .toList();
+    cardsService.createCards(mobileNumbers.stream().map(CreateCardDto::new).toList());
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Map<String, CardLookupResultDto> lookupCards() {
+    return cardsService.lookupCards(new LookupCardsDto(randomMobileNumbers(), List.of()));
+  }
+
+  @Benchmark
+  public void fetchCards(Blackhole blackhole) {
+
+    for (var mobileNumber : randomMobileNumbers()) {
+      blackhole.consume(cardsService.fetchCard(mobileNumber));
+    }
+  }
+
+  private List<String> randomMobileNumbers() {
+
+    var random = ThreadLocalRandom.current();
+    var numbers = new ArrayList<String>(size);
+    for (int i = 0; i < size; i++) {
+      numbers.add(mobileNumbers.get(random.nextInt(CARDS)));
+    }
+
+    return numbers;
+  }
+}
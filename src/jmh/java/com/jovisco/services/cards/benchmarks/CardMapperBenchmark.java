@@ -0,0 +1,57 @@
+package com.jovisco.services.cards.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jovisco.services.cards.constants.CardsConstants;
+import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.entities.Card;
+import com.jovisco.services.cards.mappers.CardMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CardMapperBenchmark {
+
+  Card card;
+
+  CardDto cardDto;
+
+  @Setup
+  public void setUp() {
+
+    card = Card.builder()
+        .id(4711L)
+        .mobileNumber("+122234567890")
+        .cardNumber("1234567890123456")
+        .cardType(CardsConstants.CREDIT_CARD)
+        .totalLimit(CardsConstants.NEW_CARD_LIMIT)
+        .amountUsed(4000)
+        .availableAmount(6000)
+        .build();
+    cardDto = CardMapper.mapToCardDto(card);
+  }
+
+  @Benchmark
+  public CardDto mapToCardDto() {
+    return CardMapper.mapToCardDto(card);
+  }
+
+  @Benchmark
+  public Card mapToCard() {
+    return CardMapper.mapToCard(cardDto);
+  }
+}
@@ -0,0 +1,56 @@
+package com.jovisco.services.cards.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jovisco.services.cards.config.CardsProperties;
+import com.jovisco.services.cards.generators.CardNumberGenerator;
+
+/**
+ * Throughput of card number generation with many concurrently creating threads,
+ * compared to the former allocation of a new Random per card - which contends on
+ * the seed uniquifier shared by all Random instances.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(16)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CardNumberGeneratorBenchmark {
+
+  CardNumberGenerator generator;
+
+  // a fresh generator per iteration, so that the bloom filter does not run full
+  @Setup(Level.Iteration)
+  public void setUp() {
+
+    var properties = new CardsProperties();
+    properties.getCardNumber().setExpectedCards(50_000_000);
+    generator = new CardNumberGenerator(properties);
+  }
+
+  @Benchmark
+  public String generate() {
+    return generator.generate();
+  }
+
+  @Benchmark
+  public String newRandomPerCard() {
+    return Long.toString(1000000000000000L + new Random().nextLong(900000000000000L));
+  }
+}
@@ -0,0 +1,78 @@
+package com.jovisco.services.cards.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.mappers.CardMapper;
+import com.jovisco.services.cards.repositories.CardsRepository;
+import com.jovisco.services.cards.services.CardsService;
+
+/**
+ * Reading a card as DTO: loading the managed entity and mapping it, against selecting the DTO's
+ * columns with a constructor expression. Run with the gc profiler (the jmh profile's default)
+ * to compare the bytes allocated per read (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CardReadPathBenchmark {
+
+  static final int CARDS = 10_000;
+
+  ConfigurableApplicationContext context;
+
+  CardsRepository cardsRepository;
+
+  List<String> mobileNumbers;
+
+  @Setup
+  public void setUp() {
+
+    context = BenchmarkContext.start();
+    cardsRepository = context.getBean(CardsRepository.class);
+
+    mobileNumbers = IntStream.range(0, CARDS)
+        .mapToObj(n -> String.format("+4917%010d", n))
+        .toList();
+    context.getBean(CardsService.class).createCards(mobileNumbers.stream().map(CreateCardDto::new).toList());
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public CardDto entity() {
+    return cardsRepository.findByMobileNumber(randomMobileNumber()).map(CardMapper::mapToCardDto).orElseThrow();
+  }
+
+  @Benchmark
+  public CardDto projection() {
+    return cardsRepository.findCardDtoByMobileNumber(randomMobileNumber()).orElseThrow();
+  }
+
+  private String randomMobileNumber() {
+    return mobileNumbers.get(ThreadLocalRandom.current().nextInt(CARDS));
+  }
+}
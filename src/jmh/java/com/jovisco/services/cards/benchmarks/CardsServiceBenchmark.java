@@ -0,0 +1,83 @@
+package com.jovisco.services.cards.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.services.CardsService;
+
+/**
+ * Card service calls against the embedded H2 database, with the card cache turned off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CardsServiceBenchmark {
+
+  static final int CARDS = 10_000;
+
+  ConfigurableApplicationContext context;
+
+  CardsService cardsService;
+
+  List<String> mobileNumbers;
+
+  CardDto[] cardDtos;
+
+  @Setup
+  public void setUp() {
+
+    context = BenchmarkContext.start();
+    cardsService = context.getBean(CardsService.class);
+
+    mobileNumbers = IntStream.range(0, CARDS)
+        .mapToObj(n -> String.format("+4917%010d", n))
+        .toList();
+    cardsService.createCards(mobileNumbers.stream().map(CreateCardDto::new).toList());
+    cardDtos = mobileNumbers.stream().map(cardsService::fetchCard).toArray(CardDto[]::new);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public CardDto fetchCard() {
+    return cardsService.fetchCard(mobileNumbers.get(ThreadLocalRandom.current().nextInt(CARDS)));
+  }
+
+  @Benchmark
+  public boolean updateCard() {
+
+    var cardDto = cardDtos[ThreadLocalRandom.current().nextInt(CARDS)];
+    cardDto.setAmountUsed((cardDto.getAmountUsed() + 1) % cardDto.getTotalLimit());
+    cardDto.setAvailableAmount(cardDto.getTotalLimit() - cardDto.getAmountUsed());
+
+    // the update bumps the card's version - keep the DTO current, as a client would, so that the next
+    // update of the card passes the version check (benchmarks run single-threaded)
+    var updated = cardsService.updateCard(cardDto);
+    cardDto.setVersion(cardDto.getVersion() + 1);
+
+    return updated;
+  }
+}
@@ -0,0 +1,78 @@
+package com.jovisco.services.cards.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jovisco.services.cards.constants.CardsConstants;
+import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.dtos.ErrorResponseDto;
+
+/**
+ * Serializes the DTOs with an object mapper configured like the one of the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonSerializationBenchmark {
+
+  ObjectMapper objectMapper;
+
+  CardDto cardDto;
+
+  byte[] cardJson;
+
+  ErrorResponseDto errorResponseDto;
+
+  @Setup
+  public void setUp() throws Exception {
+
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    cardDto = CardDto.builder()
+        .mobileNumber("+122234567890")
+        .cardNumber("1234567890123456")
+        .cardType(CardsConstants.CREDIT_CARD)
+        .totalLimit(CardsConstants.NEW_CARD_LIMIT)
+        .amountUsed(4000)
+        .availableAmount(6000)
+        .build();
+    cardJson = objectMapper.writeValueAsBytes(cardDto);
+    errorResponseDto = ErrorResponseDto.builder()
+        .apiPath("uri=/api/v1/cards/+122234567890")
+        .errorCode(HttpStatus.NOT_FOUND)
+        .errorMessage("Card not found with the given input data mobile number: +122234567890")
+        .errorTime(LocalDateTime.now())
+        .build();
+  }
+
+  @Benchmark
+  public byte[] serializeCardDto() throws Exception {
+    return objectMapper.writeValueAsBytes(cardDto);
+  }
+
+  @Benchmark
+  public CardDto deserializeCardDto() throws Exception {
+    return objectMapper.readValue(cardJson, CardDto.class);
+  }
+
+  @Benchmark
+  public byte[] serializeErrorResponseDto() throws Exception {
+    return objectMapper.writeValueAsBytes(errorResponseDto);
+  }
+}
@@ -0,0 +1,116 @@
+package com.jovisco.services.cards.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.exceptions.ResourceNotFoundException;
+import com.jovisco.services.cards.services.CardsService;
+
+/**
+ * Lookups and deletions of unknown cards - as sent by enumeration traffic - answered by a query
+ * each (knownCards false) against short-circuited by the bloom filters of known cards (knownCards
+ * true). The exceptions thrown capture no stack trace either way; exceptionWithStackTrace and
+ * exceptionWithoutStackTrace show what that saves per not-found response, at the depth of a
+ * request's stack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NotFoundPathBenchmark {
+
+  static final int CARDS = 10_000;
+
+  // frames below a service call of a request handled by Tomcat and Spring MVC
+  static final int STACK_DEPTH = 120;
+
+  @Param({ "false", "true" })
+  boolean knownCards;
+
+  ConfigurableApplicationContext context;
+
+  CardsService cardsService;
+
+  @Setup
+  public void setUp() {
+
+    context = BenchmarkContext.start("cards.known-cards.enabled=" + knownCards);
+    cardsService = context.getBean(CardsService.class);
+    cardsService.createCards(IntStream.range(0, CARDS)
+        .mapToObj(n -> new CreateCardDto(String.format("+4917%010d", n)))
+        .toList());
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Object fetchUnknownCard() {
+
+    try {
+      return cardsService.fetchCard(unknownMobileNumber());
+    } catch (ResourceNotFoundException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object deleteUnknownCard() {
+
+    try {
+      return cardsService.deleteCard(unknownMobileNumber());
+    } catch (ResourceNotFoundException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object exceptionWithStackTrace() {
+    return atDepth(STACK_DEPTH, true);
+  }
+
+  @Benchmark
+  public Object exceptionWithoutStackTrace() {
+    return atDepth(STACK_DEPTH, false);
+  }
+
+  private static String unknownMobileNumber() {
+    return String.format("+4918%010d", ThreadLocalRandom.current().nextInt(1_000_000_000));
+  }
+
+  private static RuntimeException atDepth(int depth, boolean stackTrace) {
+
+    if (depth > 0) {
+      return atDepth(depth - 1, stackTrace);
+    }
+
+    // same message either way, built like ResourceNotFoundException's
+    var mobileNumber = unknownMobileNumber();
+    return stackTrace
+        ? new RuntimeException(String.format("%s not found with the given input data %s: %s", "Card",
+            "mobile number", mobileNumber))
+        : new ResourceNotFoundException("Card", "mobile number", mobileNumber);
+  }
+}
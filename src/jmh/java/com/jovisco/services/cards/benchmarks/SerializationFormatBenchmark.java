@@ -0,0 +1,135 @@
+package com.jovisco.services.cards.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.jovisco.services.cards.constants.CardsConstants;
+import com.jovisco.services.cards.dtos.CardDto;
+
+/**
+ * Encodes and decodes a single card, and a page of cards, as JSON, gzipped JSON (as the server
+ * compresses larger JSON responses) and CBOR. The payload size of each format is printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationFormatBenchmark {
+
+  static final int PAGE_SIZE = 100;
+
+  static final TypeReference<List<CardDto>> CARD_LIST = new TypeReference<>() {
+  };
+
+  @Param({ "json", "json-gzip", "cbor" })
+  String format;
+
+  ObjectMapper objectMapper;
+
+  boolean gzip;
+
+  CardDto cardDto;
+
+  List<CardDto> page;
+
+  byte[] encodedCard;
+
+  byte[] encodedPage;
+
+  @Setup
+  public void setUp() throws Exception {
+
+    var builder = Jackson2ObjectMapperBuilder.json();
+    objectMapper = format.equals("cbor") ? builder.factory(new CBORFactory()).build() : builder.build();
+    gzip = format.equals("json-gzip");
+
+    page = IntStream.range(0, PAGE_SIZE).mapToObj(this::buildCardDto).toList();
+    cardDto = page.get(0);
+    encodedCard = encodeCard();
+    encodedPage = encodePage();
+
+    System.out.printf("%n%s: card %d bytes, page of %d cards %d bytes%n",
+        format, encodedCard.length, PAGE_SIZE, encodedPage.length);
+  }
+
+  @Benchmark
+  public byte[] encodeCard() throws Exception {
+    return encode(cardDto);
+  }
+
+  @Benchmark
+  public CardDto decodeCard() throws Exception {
+    return objectMapper.readValue(decompress(encodedCard), CardDto.class);
+  }
+
+  @Benchmark
+  public byte[] encodePage() throws Exception {
+    return encode(page);
+  }
+
+  @Benchmark
+  public List<CardDto> decodePage() throws Exception {
+    return objectMapper.readValue(decompress(encodedPage), CARD_LIST);
+  }
+
+  private byte[] encode(Object value) throws Exception {
+
+    if (!gzip) {
+      return objectMapper.writeValueAsBytes(value);
+    }
+
+    var bytes = new ByteArrayOutputStream();
+    try (var gzipStream = new GZIPOutputStream(bytes)) {
+      objectMapper.writeValue(gzipStream, value);
+    }
+
+    return bytes.toByteArray();
+  }
+
+  private byte[] decompress(byte[] bytes) throws Exception {
+
+    if (!gzip) {
+      return bytes;
+    }
+
+    try (var gzipStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      return gzipStream.readAllBytes();
+    }
+  }
+
+  private CardDto buildCardDto(int n) {
+
+    return CardDto.builder()
+        .mobileNumber(String.format("+4917%010d", n))
+        .cardNumber(String.format("4%015d", n))
+        .cardType(CardsConstants.CREDIT_CARD)
+        .totalLimit(CardsConstants.NEW_CARD_LIMIT)
+        .amountUsed(n * 10)
+        .availableAmount(CardsConstants.NEW_CARD_LIMIT - n * 10)
+        .version((long) n)
+        .build();
+  }
+}
@@ -0,0 +1,97 @@
+package com.jovisco.services.cards.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jovisco.services.cards.constants.CardsConstants;
+import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.dtos.CreateCardDto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Bean Validation of the request DTOs - valid ones, and ones that fail (among others)
+ * the mobile number pattern.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ValidationBenchmark {
+
+  ValidatorFactory validatorFactory;
+
+  Validator validator;
+
+  CardDto validCardDto;
+
+  CardDto invalidCardDto;
+
+  CreateCardDto validCreateCardDto;
+
+  CreateCardDto invalidCreateCardDto;
+
+  @Setup
+  public void setUp() {
+
+    validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+    validCardDto = CardDto.builder()
+        .mobileNumber("+122234567890")
+        .cardNumber("1234567890123456")
+        .cardType(CardsConstants.CREDIT_CARD)
+        .totalLimit(CardsConstants.NEW_CARD_LIMIT)
+        .amountUsed(4000)
+        .availableAmount(6000)
+        .build();
+    invalidCardDto = validCardDto.toBuilder()
+        .mobileNumber("INVALID")
+        .totalLimit(0)
+        .amountUsed(-1)
+        .build();
+    validCreateCardDto = new CreateCardDto("+122234567890");
+    invalidCreateCardDto = new CreateCardDto("INVALID");
+  }
+
+  @TearDown
+  public void tearDown() {
+    validatorFactory.close();
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CardDto>> validateValidCardDto() {
+    return validator.validate(validCardDto);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CardDto>> validateInvalidCardDto() {
+    return validator.validate(invalidCardDto);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CreateCardDto>> validateValidCreateCardDto() {
+    return validator.validate(validCreateCardDto);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CreateCardDto>> validateInvalidCreateCardDto() {
+    return validator.validate(invalidCreateCardDto);
+  }
+}
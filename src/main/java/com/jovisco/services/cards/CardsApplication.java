@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 
+import com.jovisco.services.cards.config.CardsProperties;
 import com.jovisco.services.cards.dtos.ContactInfoDto;
 
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
@@ -15,7 +16,7 @@ import io.swagger.v3.oas.annotations.info.License;
 
 @OpenAPIDefinition(info = @Info(title = "Cards Microservice - REST API Documentation", description = "Learning how to develop, build, document and deploy microservices with Spring Boot", version = "1.0.0", contact = @Contact(name = "Josef Heiss", email = "contact@jovisco.de", url = "https://www.jovisco.de"), license = @License(name = "Apache 2.0", url = "https://www.jovisco.de")), externalDocs = @ExternalDocumentation(description = "Spring Microservices Course: Cards Microservice - REST API Documentation", url = "https://www.example.com"))
 @EnableDiscoveryClient
-@EnableConfigurationProperties(value = ContactInfoDto.class)
+@EnableConfigurationProperties(value = { ContactInfoDto.class, CardsProperties.class })
 @SpringBootApplication
 public class CardsApplication {
 
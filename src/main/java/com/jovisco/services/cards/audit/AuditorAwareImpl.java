@@ -4,13 +4,42 @@ import java.util.Optional;
 
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import com.jovisco.services.cards.config.CardsProperties;
+
+/**
+ * Returns the caller of the current request, as passed on by the gateway in the caller header -
+ * or the service itself, outside of requests and for requests without the header. The header is
+ * taken as given, so it must be set by the gateway from the authenticated caller.
+ */
 @Component("auditorAwareImpl")
 public class AuditorAwareImpl implements AuditorAware<String> {
 
+    public static final String SERVICE_AUDITOR = "CARDS_MS";
+
+    // the columns the auditor is written to are varchar(30)
+    static final int MAX_LENGTH = 30;
+
+    private final String callerHeader;
+
+    public AuditorAwareImpl(CardsProperties cardsProperties) {
+        this.callerHeader = cardsProperties.getAudit().getCallerHeader();
+    }
+
     @Override
     public Optional<String> getCurrentAuditor() {
-        return Optional.of("CARDS_MS");
+
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            var caller = attributes.getRequest().getHeader(callerHeader);
+            if (caller != null && !caller.isBlank()) {
+                caller = caller.strip();
+                return Optional.of(caller.length() > MAX_LENGTH ? caller.substring(0, MAX_LENGTH) : caller);
+            }
+        }
+
+        return Optional.of(SERVICE_AUDITOR);
     }
 
 }
@@ -0,0 +1,251 @@
+package com.jovisco.services.cards.batching;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jovisco.services.cards.config.CardsProperties;
+import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.repositories.CardsRepository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+
+/**
+ * Resolves lookups of single cards, arriving concurrently for different mobile numbers, with one
+ * IN query per batch. A batch is dispatched once it is full, or once the window has passed since
+ * its first lookup - so a lookup is delayed by the window at most, plus the time of the query.
+ * Batches are queried on virtual threads, while the next batch is already being collected - up to
+ * the maximum number of concurrent queries, beyond which lookups wait in the queue. Each batch is
+ * queried in a read-only transaction timing out after the load timeout, so that a query is
+ * cancelled by the time its callers have given up on it.
+ * If the queue of lookups is full, or the batcher is stopped, lookups query their card themselves.
+ */
+@Component
+public class CardLookupBatcher implements SmartLifecycle {
+
+  public static final String BATCH_SIZE_METRIC = "cards.lookup.batch.size";
+
+  record Lookup(String mobileNumber, CompletableFuture<CardDto> result) {
+  }
+
+  private final CardsRepository cardsRepository;
+
+  @Getter
+  private final boolean enabled;
+
+  private final Duration window;
+
+  private final int maxBatchSize;
+
+  private final Duration loadTimeout;
+
+  private final BlockingQueue<Lookup> queue;
+
+  private final Semaphore queryPermits;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final DistributionSummary batchSizes;
+
+  private volatile boolean running;
+
+  private Thread dispatcher;
+
+  private ExecutorService queries;
+
+  public CardLookupBatcher(CardsProperties cardsProperties, CardsRepository cardsRepository,
+      PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+
+    var properties = cardsProperties.getLookup().getBatching();
+    this.cardsRepository = cardsRepository;
+    this.enabled = properties.isEnabled();
+    this.window = properties.getWindow();
+    this.maxBatchSize = properties.getMaxBatchSize();
+    this.loadTimeout = cardsProperties.getCache().getLoadTimeout();
+    this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+    this.queryPermits = new Semaphore(properties.getMaxConcurrentQueries());
+
+    // queries run off the request thread, outside of the request's bulkhead and its transaction timeout
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    // transaction timeouts are given in whole seconds
+    this.transactionTemplate.setTimeout((int) Math.max(1, (loadTimeout.toMillis() + 999) / 1000));
+    this.batchSizes = DistributionSummary.builder(BATCH_SIZE_METRIC)
+        .description("Number of card lookups resolved by one query")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Returns the card with the mobile number, as resolved within the next batch.
+   */
+  public Optional<CardDto> load(String mobileNumber) {
+
+    var lookup = new Lookup(mobileNumber, new CompletableFuture<>());
+    if (!running || !queue.offer(lookup)) {
+      return cardsRepository.findCardDtoByMobileNumber(mobileNumber);
+    }
+
+    try {
+      return Optional.ofNullable(lookup.result().get(window.plus(loadTimeout).toNanos(), TimeUnit.NANOSECONDS));
+    } catch (ExecutionException e) {
+      // the exception of the batch's query
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (TimeoutException e) {
+      throw new QueryTimeoutException("Gave up waiting for the batched lookup of card " + mobileNumber, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while waiting for the batched lookup of card " + mobileNumber);
+    }
+  }
+
+  private void runDispatcher() {
+
+    while (running) {
+      // wait for a query to finish while all are in flight
+      try {
+        queryPermits.acquire();
+      } catch (InterruptedException e) {
+        return;
+      }
+
+      var batch = new ArrayList<Lookup>(maxBatchSize);
+      try {
+        collect(batch);
+      } catch (InterruptedException e) {
+        // stopped while collecting - the lookups collected are no longer in the queue, where stop() resolves the rest
+        resolveAndRelease(batch);
+        return;
+      }
+
+      if (batch.isEmpty()) {
+        queryPermits.release();
+      } else {
+        queries.execute(() -> resolveAndRelease(batch));
+      }
+    }
+  }
+
+  private void collect(List<Lookup> batch) throws InterruptedException {
+
+    // wait for the first lookup, then collect further lookups until the batch is full or the window has passed
+    var first = queue.poll(100, TimeUnit.MILLISECONDS);
+    if (first == null) {
+      return;
+    }
+    batch.add(first);
+    var deadline = System.nanoTime() + window.toNanos();
+    while (batch.size() < maxBatchSize) {
+      queue.drainTo(batch, maxBatchSize - batch.size());
+      var remaining = deadline - System.nanoTime();
+      if (batch.size() >= maxBatchSize || remaining <= 0) {
+        return;
+      }
+      var next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next != null) {
+        batch.add(next);
+      }
+    }
+  }
+
+  private void resolveAndRelease(List<Lookup> batch) {
+
+    try {
+      if (!batch.isEmpty()) {
+        resolve(batch);
+      }
+    } finally {
+      queryPermits.release();
+    }
+  }
+
+  private void resolve(List<Lookup> batch) {
+
+    batchSizes.record(batch.size());
+
+    // the same card may be looked up more than once within a batch
+    var lookups = new HashMap<String, List<CompletableFuture<CardDto>>>();
+    batch.forEach(lookup -> lookups.computeIfAbsent(lookup.mobileNumber(), key -> new ArrayList<>())
+        .add(lookup.result()));
+
+    try {
+      var cardDtos = new HashMap<String, CardDto>();
+      transactionTemplate.execute(status -> cardsRepository.findCardDtosByMobileNumberIn(lookups.keySet()))
+          .forEach(cardDto -> cardDtos.put(cardDto.getMobileNumber(), cardDto));
+      // unknown cards are resolved with null
+      lookups.forEach((mobileNumber, results) -> {
+        var cardDto = cardDtos.get(mobileNumber);
+        for (int i = 0; i < results.size(); i++) {
+          results.get(i).complete(i == 0 || cardDto == null ? cardDto : cardDto.toBuilder().build());
+        }
+      });
+    } catch (RuntimeException e) {
+      lookups.values().forEach(results -> results.forEach(result -> result.completeExceptionally(e)));
+    }
+  }
+
+  @Override
+  public void start() {
+
+    if (!enabled) {
+      return;
+    }
+    running = true;
+    queries = Executors.newVirtualThreadPerTaskExecutor();
+    dispatcher = Thread.ofPlatform().name("card-lookup-batcher").daemon().start(this::runDispatcher);
+  }
+
+  @Override
+  public void stop() {
+
+    running = false;
+    if (dispatcher != null) {
+      dispatcher.interrupt();
+      try {
+        dispatcher.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      // resolve what is left, and wait for the batches still being queried
+      var batch = new ArrayList<Lookup>();
+      queue.drainTo(batch);
+      if (!batch.isEmpty()) {
+        resolve(batch);
+      }
+      queries.close();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // stop after the web server (DEFAULT_PHASE - 2048), so that no more requests look up cards
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+}
@@ -0,0 +1,168 @@
+package com.jovisco.services.cards.cache;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jovisco.services.cards.config.CardsProperties;
+import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.util.SingleFlight;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded read-through cache of cards keyed by mobile number.
+ * Entries expire after the configured time to live, or are evicted when the
+ * maximum size is reached. Hit, miss and eviction counters are published as
+ * "cache.*" metrics with tag cache=cards.
+ * Cached cards are copied on the way in and out, so callers may modify the
+ * returned card without affecting the cache.
+ * Concurrent loads of a card missing in the cache are coalesced into a single load, also
+ * with the cache disabled - the number of loads saved is published as "cards.cache.coalesced".
+ * A loaded card is only cached if it has not been evicted since the load started, as it may have
+ * been read before the change that evicted it. With reads routed to replicas, neither is a card
+ * evicted within the replica read delay, as the replica may not have caught up with the change yet.
+ */
+@Component
+public class CardsCache {
+
+  public static final String CACHE_NAME = "cards";
+
+  public static final String COALESCED_METRIC = "cards.cache.coalesced";
+
+  static final int GENERATION_STRIPES = 1024;
+
+  private final boolean enabled;
+
+  private final Cache<String, CardDto> cache;
+
+  private final SingleFlight<String, CardDto> loads;
+
+  // number of evictions per stripe of mobile numbers - striped, so that it stays bounded however many cards there are
+  private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+  // System.nanoTime() of the last eviction per stripe, 0 if never evicted
+  private final AtomicLongArray evictedAt = new AtomicLongArray(GENERATION_STRIPES);
+
+  // zero if reads are not routed to replicas
+  private final long replicaReadDelayNanos;
+
+  public CardsCache(CardsProperties cardsProperties, MeterRegistry meterRegistry) {
+
+    var properties = cardsProperties.getCache();
+    this.enabled = properties.isEnabled();
+    this.replicaReadDelayNanos = cardsProperties.getDatasource().isRouting()
+        ? properties.getReplicaReadDelay().toNanos()
+        : 0;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(properties.getMaximumSize())
+        .expireAfterWrite(properties.getTimeToLive())
+        .recordStats()
+        .build();
+
+    this.loads = new SingleFlight<>(properties.getLoadTimeout());
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    FunctionCounter.builder(COALESCED_METRIC, loads, SingleFlight::getCoalesced)
+        .tag("cache", CACHE_NAME)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Returns the cached card, or else the card loaded - by this caller, or by a concurrent caller
+   * loading the same card - and caches it.
+   */
+  public CardDto get(String mobileNumber, Supplier<CardDto> loader) {
+
+    var cached = get(mobileNumber);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+
+    var cardDto = loads.load(mobileNumber, () -> {
+      var generation = generation(mobileNumber);
+      var loaded = loader.get();
+      put(mobileNumber, loaded, generation);
+      return loaded;
+    });
+
+    // the loaded card is shared by all callers, each gets a copy of its own
+    return cardDto.toBuilder().build();
+  }
+
+  public Optional<CardDto> get(String mobileNumber) {
+
+    if (!enabled) {
+      return Optional.empty();
+    }
+
+    return Optional.ofNullable(cache.getIfPresent(mobileNumber))
+        .map(cardDto -> cardDto.toBuilder().build());
+  }
+
+  /**
+   * Returns the generation of the card with the mobile number, to be taken before the card is read
+   * from the database and passed on to put.
+   */
+  public long generation(String mobileNumber) {
+    return generations.get(stripe(mobileNumber));
+  }
+
+  /**
+   * Caches the card read, unless it has been evicted since the generation was taken - or, with
+   * reads routed to replicas, within the replica read delay.
+   */
+  public void put(String mobileNumber, CardDto cardDto, long generation) {
+
+    if (!enabled || generation(mobileNumber) != generation || readFromStaleReplica(mobileNumber)) {
+      return;
+    }
+
+    cache.put(mobileNumber, cardDto.toBuilder().build());
+
+    // evicted meanwhile - the eviction may have happened before the card was put
+    if (generation(mobileNumber) != generation) {
+      cache.invalidate(mobileNumber);
+    }
+  }
+
+  public void evict(String mobileNumber) {
+
+    // a new generation before the card is invalidated, so that loads in flight do not cache it again
+    var stripe = stripe(mobileNumber);
+    evictedAt.set(stripe, System.nanoTime());
+    generations.incrementAndGet(stripe);
+    cache.invalidate(mobileNumber);
+    loads.forget(mobileNumber);
+  }
+
+  public void evictAll() {
+
+    var now = System.nanoTime();
+    for (int i = 0; i < GENERATION_STRIPES; i++) {
+      evictedAt.set(i, now);
+      generations.incrementAndGet(i);
+    }
+    cache.invalidateAll();
+  }
+
+  private boolean readFromStaleReplica(String mobileNumber) {
+
+    if (replicaReadDelayNanos == 0) {
+      return false;
+    }
+
+    var evicted = evictedAt.get(stripe(mobileNumber));
+    return evicted != 0 && System.nanoTime() - evicted < replicaReadDelayNanos;
+  }
+
+  private static int stripe(String mobileNumber) {
+    return mobileNumber.hashCode() & (GENERATION_STRIPES - 1);
+  }
+}
@@ -0,0 +1,196 @@
+package com.jovisco.services.cards.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.jovisco.services.cards.config.CardsProperties;
+import com.jovisco.services.cards.generators.CardNumberGenerator;
+import com.jovisco.services.cards.util.BloomFilter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloom filters of the mobile numbers and card numbers of all cards, loaded from the database in
+ * the background after startup and kept current by the card writes of this instance, and by the
+ * invalidation events of the other instances. The card numbers are those issued by the card number
+ * generator, whose filter is loaded by the same scan of the cards. A number the filter has
+ * definitely not seen belongs to no card, so lookups of unknown numbers are answered without a
+ * query. Numbers of deleted cards stay in the filters, their lookups just reach the database.
+ * Until loaded, if disabled, and while nothing has been heard from the bus for two heartbeat
+ * intervals - the cards of the other instances may not have been registered - every number is
+ * reported as possibly known.
+ * The lookups answered by the filters are published as "cards.known_cards.misses".
+ */
+@Slf4j
+@Component
+public class KnownCards {
+
+  public static final String MISSES_METRIC = "cards.known_cards.misses";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final CardNumberGenerator cardNumberGenerator;
+
+  private final boolean enabled;
+
+  private final BloomFilter mobileNumbers;
+
+  private final long busSilenceNanos;
+
+  private final LongAdder misses = new LongAdder();
+
+  // reloads requested and not yet started - requests arriving during a reload are coalesced into one more
+  private final AtomicInteger reloadRequests = new AtomicInteger();
+
+  // number of reloads done
+  final LongAdder reloads = new LongAdder();
+
+  private volatile boolean loaded;
+
+  // System.nanoTime() of the latest event or heartbeat of another instance, 0 if none received yet
+  private volatile long heardFromBus;
+
+  public KnownCards(CardsProperties cardsProperties, JdbcTemplate jdbcTemplate,
+      CardNumberGenerator cardNumberGenerator, MeterRegistry meterRegistry) {
+
+    var properties = cardsProperties.getKnownCards();
+    this.jdbcTemplate = jdbcTemplate;
+    this.cardNumberGenerator = cardNumberGenerator;
+    this.enabled = properties.isEnabled();
+    this.mobileNumbers = new BloomFilter(properties.getExpectedCards(), properties.getFalsePositiveProbability());
+    this.busSilenceNanos = cardsProperties.getInvalidation().getHeartbeatInterval().multipliedBy(2).toNanos();
+
+    FunctionCounter.builder(MISSES_METRIC, misses, LongAdder::sum)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Returns false if there is definitely no card with the mobile number.
+   */
+  public boolean mightExistWithMobileNumber(String mobileNumber) {
+    return mightExist(mobileNumber, mobileNumbers::mightContain);
+  }
+
+  /**
+   * Returns false if there is definitely no card with the card number.
+   */
+  public boolean mightExistWithCardNumber(String cardNumber) {
+    return mightExist(cardNumber, cardNumberGenerator::mightBeIssued);
+  }
+
+  /**
+   * Adds the numbers of a card being created or changed - before its transaction commits,
+   * so that the card is never reported as unknown once it can be read.
+   */
+  public void register(String mobileNumber, String cardNumber) {
+
+    if (!enabled) {
+      return;
+    }
+    if (mobileNumber != null) {
+      mobileNumbers.put(mobileNumber);
+    }
+    if (cardNumber != null) {
+      cardNumberGenerator.register(cardNumber);
+    }
+  }
+
+  /**
+   * Records that an event or heartbeat of another instance has arrived over the bus.
+   */
+  public void heardFromBus() {
+    heardFromBus = System.nanoTime();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+
+    // not to hold up readiness with a full scan of the cards - lookups reach the database until loaded
+    if (enabled) {
+      reloadKnownCards();
+    }
+  }
+
+  /**
+   * Loads the numbers of all cards.
+   */
+  public void loadKnownCards() {
+
+    if (!enabled) {
+      return;
+    }
+
+    var start = System.nanoTime();
+    var count = new AtomicLong();
+
+    // stream the numbers, so that memory stays constant however many cards there are - cards created
+    // meanwhile are registered by their writes, so none is missed
+    jdbcTemplate.query(connection -> {
+      var statement = connection.prepareStatement("select card_number, mobile_number from cards");
+      statement.setFetchSize(1000);
+      return statement;
+    }, resultSet -> {
+      cardNumberGenerator.register(resultSet.getString(1));
+      mobileNumbers.put(resultSet.getString(2));
+      count.incrementAndGet();
+    });
+    loaded = true;
+
+    log.debug("Loaded {} known cards in {} ms", count.get(), (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Reloads the numbers of all cards in the background, e.g. after invalidations have been missed.
+   * Only one reload runs at a time, requests arriving meanwhile are served by one reload after it.
+   */
+  public void reloadKnownCards() {
+
+    if (reloadRequests.getAndIncrement() == 0) {
+      Thread.ofVirtual().name("known-cards-reload").start(this::reload);
+    }
+  }
+
+  private void reload() {
+
+    int requests;
+    do {
+      requests = reloadRequests.get();
+      try {
+        loadKnownCards();
+      } catch (RuntimeException e) {
+        // numbers missed stay unknown until the next reload - their lookups are answered as not found
+        log.warn("Known cards not reloaded: {}", e.getMessage());
+      }
+      reloads.increment();
+    } while (reloadRequests.addAndGet(-requests) > 0);
+  }
+
+  private boolean busAlive() {
+
+    var heard = heardFromBus;
+    return heard != 0 && System.nanoTime() - heard <= busSilenceNanos;
+  }
+
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  private boolean mightExist(String number, Predicate<String> filter) {
+
+    if (!loaded || number == null || !busAlive() || filter.test(number)) {
+      return true;
+    }
+
+    misses.increment();
+    return false;
+  }
+}
@@ -0,0 +1,27 @@
+package com.jovisco.services.cards.changelog;
+
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * A single entry of the card change log - limits and amounts are only set where known.
+ */
+@Value @Builder
+public class CardChange {
+
+  public enum Type { CREATED, UPDATED, CHARGED, CREDITED, DELETED }
+
+  String cardNumber;
+  String mobileNumber;
+  Type type;
+  String changedFields;
+  Integer oldTotalLimit;
+  Integer newTotalLimit;
+  Integer oldAmountUsed;
+  Integer newAmountUsed;
+  Integer amount;
+  String changedBy;
+  LocalDateTime changedAt;
+}
@@ -0,0 +1,237 @@
+package com.jovisco.services.cards.changelog;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.jovisco.services.cards.config.CardsProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only log of card changes, written asynchronously.
+ * Changes are queued in a bounded queue once the surrounding transaction has committed, and written
+ * in JDBC batches by a background writer - so a request pays no more than an offer to the queue.
+ * If the queue stays full for the offer timeout, the request writes its change itself, which slows
+ * down writers as long as the database cannot keep up, instead of losing changes or memory.
+ * On shutdown, the queue is drained after the web server has stopped taking requests.
+ */
+@Slf4j
+@Component
+public class CardChangeLog implements SmartLifecycle {
+
+  public static final String QUEUED_METRIC = "cards.changelog.queued";
+  public static final String WRITTEN_METRIC = "cards.changelog.written";
+  public static final String SYNCHRONOUS_METRIC = "cards.changelog.synchronous";
+  public static final String FAILED_METRIC = "cards.changelog.failed";
+
+  static final String INSERT_SQL = """
+      insert into card_change_log (card_number, mobile_number, change_type, changed_fields, old_total_limit,
+          new_total_limit, old_amount_used, new_amount_used, amount, changed_by, changed_at)
+      values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final BlockingQueue<CardChange> queue;
+
+  private final int batchSize;
+
+  private final Duration offerTimeout;
+
+  private final Duration lingerTime;
+
+  private final Duration shutdownTimeout;
+
+  private final Counter written;
+
+  private final Counter synchronous;
+
+  private final Counter failed;
+
+  private volatile boolean running;
+
+  private Thread writer;
+
+  public CardChangeLog(CardsProperties cardsProperties, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+
+    var properties = cardsProperties.getChangeLog();
+    this.jdbcTemplate = jdbcTemplate;
+    this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+    this.batchSize = properties.getBatchSize();
+    this.offerTimeout = properties.getOfferTimeout();
+    this.lingerTime = properties.getLingerTime();
+    this.shutdownTimeout = properties.getShutdownTimeout();
+
+    meterRegistry.gaugeCollectionSize(QUEUED_METRIC, List.of(), queue);
+    this.written = meterRegistry.counter(WRITTEN_METRIC);
+    this.synchronous = meterRegistry.counter(SYNCHRONOUS_METRIC);
+    this.failed = meterRegistry.counter(FAILED_METRIC);
+  }
+
+  /**
+   * Logs the change once the current transaction has committed - or right away, if there is none.
+   */
+  public void record(CardChange change) {
+    record(List.of(change));
+  }
+
+  /**
+   * Logs the changes once the current transaction has committed - or right away, if there is none.
+   */
+  public void record(List<CardChange> changes) {
+
+    if (changes.isEmpty()) {
+      return;
+    }
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          enqueue(changes);
+        }
+      });
+    } else {
+      enqueue(changes);
+    }
+  }
+
+  private void enqueue(List<CardChange> changes) {
+
+    var rejected = new ArrayList<CardChange>();
+    for (int i = 0; i < changes.size(); i++) {
+      var change = changes.get(i);
+      try {
+        // wait for room in the queue only once - if it stays full, do not wait again for each further change
+        var queued = running && (rejected.isEmpty()
+            ? queue.offer(change, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)
+            : queue.offer(change));
+        if (!queued) {
+          rejected.add(change);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        rejected.addAll(changes.subList(i, changes.size()));
+        break;
+      }
+    }
+
+    // back-pressure: the queue is full (or the writer is stopped), so the request writes its changes itself
+    if (!rejected.isEmpty()) {
+      synchronous.increment(rejected.size());
+      write(rejected);
+    }
+  }
+
+  /**
+   * Writes all queued changes on the calling thread.
+   */
+  public void flush() {
+
+    var batch = new ArrayList<CardChange>(batchSize);
+    while (queue.drainTo(batch, batchSize) > 0) {
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  private void runWriter() {
+
+    var batch = new ArrayList<CardChange>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        // wait for the first change, then linger a little to fill the batch
+        var first = queue.poll(lingerTime.toNanos(), TimeUnit.NANOSECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        if (batch.size() < batchSize && running) {
+          Thread.sleep(lingerTime.toMillis());
+          queue.drainTo(batch, batchSize - batch.size());
+        }
+        write(batch);
+        batch.clear();
+      } catch (InterruptedException e) {
+        // stop waiting - the remaining changes are written by stop()
+        write(batch);
+        return;
+      }
+    }
+  }
+
+  private void write(List<CardChange> changes) {
+
+    if (changes.isEmpty()) {
+      return;
+    }
+
+    try {
+      jdbcTemplate.batchUpdate(INSERT_SQL, changes, changes.size(), (statement, change) -> {
+        statement.setString(1, change.getCardNumber());
+        statement.setString(2, change.getMobileNumber());
+        statement.setString(3, change.getType().name());
+        statement.setString(4, change.getChangedFields());
+        statement.setObject(5, change.getOldTotalLimit());
+        statement.setObject(6, change.getNewTotalLimit());
+        statement.setObject(7, change.getOldAmountUsed());
+        statement.setObject(8, change.getNewAmountUsed());
+        statement.setObject(9, change.getAmount());
+        statement.setString(10, change.getChangedBy());
+        statement.setTimestamp(11, Timestamp.valueOf(change.getChangedAt()));
+      });
+      written.increment(changes.size());
+    } catch (RuntimeException e) {
+      // the card changes themselves are committed already - losing their log must not fail requests
+      failed.increment(changes.size());
+      log.error("Failed to write {} card changes to the change log", changes.size(), e);
+    }
+  }
+
+  @Override
+  public void start() {
+
+    running = true;
+    writer = Thread.ofPlatform().name("card-change-log-writer").daemon().start(this::runWriter);
+  }
+
+  @Override
+  public void stop() {
+
+    // let the writer drain the queue, and write what is left if it does not finish in time
+    running = false;
+    if (writer != null) {
+      try {
+        writer.join(shutdownTimeout.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      writer.interrupt();
+    }
+    flush();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // stop after the web server (DEFAULT_PHASE - 2048), so that no more requests log changes
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+}
@@ -0,0 +1,12 @@
+package com.jovisco.services.cards.config;
+
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
+import org.springframework.context.annotation.Configuration;
+
+import com.jovisco.services.cards.invalidation.CardsInvalidatedEvent;
+
+// registers the card events sent over the bus, so that the receiving instances can deserialize them
+@RemoteApplicationEventScan(basePackageClasses = CardsInvalidatedEvent.class)
+@Configuration
+public class BusConfig {
+}
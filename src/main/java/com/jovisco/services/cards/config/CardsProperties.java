@@ -0,0 +1,298 @@
+package com.jovisco.services.cards.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.zaxxer.hikari.HikariConfig;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "cards")
+public class CardsProperties {
+
+    private final Cache cache = new Cache();
+
+    private final Batch batch = new Batch();
+
+    private final Export export = new Export();
+
+    private final Lookup lookup = new Lookup();
+
+    private final CardNumber cardNumber = new CardNumber();
+
+    private final KnownCards knownCards = new KnownCards();
+
+    private final Invalidation invalidation = new Invalidation();
+
+    private final Audit audit = new Audit();
+
+    private final ChangeLog changeLog = new ChangeLog();
+
+    private final Outbox outbox = new Outbox();
+
+    private final Ledger ledger = new Ledger();
+
+    private final Datasource datasource = new Datasource();
+
+    private final Throttling throttling = new Throttling();
+
+    private final Bulkhead bulkhead = new Bulkhead();
+
+    @Getter @Setter
+    public static class Cache {
+
+        /** Whether fetched cards are cached in memory */
+        private boolean enabled = true;
+
+        /** Maximum number of cards held in the cache */
+        private long maximumSize = 10_000;
+
+        /** Time after which a cached card is evicted */
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        /** Time a request waits for the load of a card started by a concurrent request */
+        private Duration loadTimeout = Duration.ofSeconds(5);
+
+        /** Time after an eviction during which loaded cards are not cached, as a replica may still return them unchanged - with datasource routing only */
+        private Duration replicaReadDelay = Duration.ofSeconds(10);
+    }
+
+    @Getter @Setter
+    public static class Batch {
+
+        /** Maximum number of cards accepted by a single batch request */
+        private int maxSize = 50_000;
+
+        /** Number of cards inserted per transaction */
+        private int chunkSize = 500;
+    }
+
+    @Getter @Setter
+    public static class Export {
+
+        /** Time the export of all cards may take - applies to the export only, not to other async requests */
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+
+    @Getter @Setter
+    public static class Lookup {
+
+        /** Maximum number of mobile numbers and card numbers accepted by a single lookup request */
+        private int maxSize = 500;
+
+        private final Batching batching = new Batching();
+
+        @Getter @Setter
+        public static class Batching {
+
+            /** Whether concurrent lookups of single cards are resolved in batches, with one query per batch */
+            private boolean enabled = false;
+
+            /** Time a batch collects lookups after its first one - the most a lookup is delayed */
+            private Duration window = Duration.ofMillis(2);
+
+            /** Maximum number of lookups resolved by one query - a full batch is dispatched right away */
+            private int maxBatchSize = 100;
+
+            /** Maximum number of lookups waiting for a batch - further lookups query their card themselves */
+            private int capacity = 10_000;
+
+            /** Maximum number of batches queried at a time - further batches wait, collecting more lookups meanwhile */
+            private int maxConcurrentQueries = 4;
+        }
+    }
+
+    @Getter @Setter
+    public static class CardNumber {
+
+        /** Lowest issuer identification number (BIN) of new card numbers */
+        private long binFrom = 400_000;
+
+        /** Highest issuer identification number (BIN) of new card numbers, same number of digits as binFrom */
+        private long binTo = 499_999;
+
+        /** Number of digits of a card number, including the BIN and the Luhn check digit */
+        private int length = 16;
+
+        /** Number of card numbers the bloom filter of issued card numbers is sized for */
+        private long expectedCards = 1_000_000;
+
+        /** Probability that the bloom filter wrongly reports a card number as issued */
+        private double falsePositiveProbability = 0.001;
+
+        /** Number of card numbers tried when the database reports a card number as taken */
+        private int maxAttempts = 3;
+    }
+
+    @Getter @Setter
+    public static class KnownCards {
+
+        /** Whether lookups of numbers unknown to the bloom filters skip the database - other instances' new cards are known once their invalidation arrives */
+        private boolean enabled = false;
+
+        /** Number of cards the bloom filter of known mobile numbers is sized for - card numbers are those of the card number generator */
+        private long expectedCards = 1_000_000;
+
+        /** Probability that the bloom filter wrongly reports an unknown mobile number as known - its lookup reaches the database */
+        private double falsePositiveProbability = 0.01;
+    }
+
+    @Getter @Setter
+    public static class Invalidation {
+
+        /** Whether changed cards are broadcast over the bus, for the other instances to drop them from their caches */
+        private boolean enabled = true;
+
+        /** Time changed cards are collected after the first one, before they are broadcast in one event */
+        private Duration window = Duration.ofMillis(50);
+
+        /** Maximum number of changed cards broadcast in one event - a full batch is broadcast right away */
+        private int maxBatchSize = 500;
+
+        /** Maximum number of changed cards waiting to be broadcast - further changes make the other instances flush their caches */
+        private int capacity = 10_000;
+
+        /** Time after which an idle instance tells the other instances the number of its latest event */
+        private Duration heartbeatInterval = Duration.ofSeconds(5);
+    }
+
+    @Getter @Setter
+    public static class Audit {
+
+        /** Request header the gateway passes the caller in - recorded as the author of card changes */
+        private String callerHeader = "jovisco-banking-user-id";
+    }
+
+    @Getter @Setter
+    public static class ChangeLog {
+
+        /** Maximum number of card changes waiting to be written */
+        private int capacity = 10_000;
+
+        /** Maximum number of card changes written in one JDBC batch */
+        private int batchSize = 500;
+
+        /** Time a request waits for room in a full queue, before it writes its change itself */
+        private Duration offerTimeout = Duration.ofMillis(50);
+
+        /** Time the writer waits for further changes before it writes an incomplete batch */
+        private Duration lingerTime = Duration.ofMillis(100);
+
+        /** Time to wait on shutdown for the queued changes to be written */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    @Getter @Setter
+    public static class Outbox {
+
+        /** Exchange the card events are published to, with the event type as routing key */
+        private String exchange = "cards.events";
+
+        /** Maximum number of card events published in one batch */
+        private int batchSize = 100;
+
+        /** Time the broker is given to confirm a batch of card events */
+        private Duration confirmTimeout = Duration.ofSeconds(5);
+
+        /** Time between two runs of the relay, once the outbox has been emptied */
+        private Duration pollInterval = Duration.ofMillis(500);
+    }
+
+    @Getter @Setter
+    public static class Ledger {
+
+        /** Maximum number of ledger entries folded into the balance snapshots in one transaction */
+        private int snapshotBatchSize = 10_000;
+
+        /** Age of the ledger entries folded into the balance snapshots - well beyond the longest write transaction */
+        private Duration settleTime = Duration.ofSeconds(30);
+    }
+
+    @Getter @Setter
+    public static class Datasource {
+
+        /** Whether read-only transactions read from the replicas, while all other transactions stay on the primary */
+        private boolean routing = false;
+
+        /** Connection pools of the read replicas, configured like spring.datasource.hikari plus jdbc-url, username and password */
+        private List<HikariConfig> replicas = new ArrayList<>();
+
+        /** Replicas lagging further behind the primary are not read from - not checked if not set */
+        private Duration maxReplicaLag;
+
+        /** Query returning the replication lag of a replica */
+        private String replicaLagQuery = "show replica status";
+
+        /** Column of the replica lag query's result holding the lag in seconds */
+        private String replicaLagColumn = "Seconds_Behind_Source";
+    }
+
+    @Getter @Setter
+    public static class Throttling {
+
+        /** Whether requests to the card endpoints are rate limited and shed under overload - requires the gateway to set the client header */
+        private boolean enabled = false;
+
+        /** Request header identifying the client, set by the gateway from the authenticated client - requests without it are limited per remote address */
+        private String clientHeader = "jovisco-banking-client-id";
+
+        /** Sustained number of requests per second allowed per client */
+        private double requestsPerSecond = 100;
+
+        /** Number of requests a client may send at once, after having been idle */
+        private int burst = 200;
+
+        /** Maximum number of clients whose rate is tracked at a time */
+        private long maxClients = 100_000;
+
+        /** Requests arriving while this many requests are in flight are rejected */
+        private int maxInFlightRequests = 500;
+
+        /** Requests arriving while more threads wait for a database connection are rejected */
+        private int maxPendingConnections = 10;
+
+        /** Time a client is told to wait before retrying a request rejected under overload */
+        private Duration overloadRetryAfter = Duration.ofSeconds(1);
+    }
+
+    @Getter @Setter
+    public static class Bulkhead {
+
+        /** Whether reads and writes of the card endpoints are limited by bulkheads of their own */
+        private boolean enabled = true;
+
+        /** Bulkhead of the requests reading cards */
+        private final Compartment read = new Compartment(50, 100, Duration.ofMillis(50), Duration.ofSeconds(2));
+
+        /** Bulkhead of the requests creating, changing or deleting cards */
+        private final Compartment write = new Compartment(5, 20, Duration.ofMillis(250), Duration.ofSeconds(5));
+
+        @Getter @Setter
+        public static class Compartment {
+
+            /** Maximum number of requests served at a time */
+            private int maxConcurrentCalls;
+
+            /** Maximum number of requests waiting to be served - further requests are rejected */
+            private int maxQueueDepth;
+
+            /** Time a request waits to be served, before it is rejected */
+            private Duration maxWait;
+
+            /** Timeout of the transactions of a request, applied to each of its statements, too - rounded up to seconds */
+            private Duration transactionTimeout;
+
+            Compartment(int maxConcurrentCalls, int maxQueueDepth, Duration maxWait, Duration transactionTimeout) {
+                this.maxConcurrentCalls = maxConcurrentCalls;
+                this.maxQueueDepth = maxQueueDepth;
+                this.maxWait = maxWait;
+                this.transactionTimeout = transactionTimeout;
+            }
+        }
+    }
+}
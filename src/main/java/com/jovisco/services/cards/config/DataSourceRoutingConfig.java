@@ -0,0 +1,67 @@
+package com.jovisco.services.cards.config;
+
+import java.util.LinkedHashMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.jovisco.services.cards.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Routes read-only transactions to the read replicas, and all other transactions to the primary
+ * (spring.datasource). Connections are only fetched once the first statement is executed - by then
+ * the transaction has marked the connection read-only, and it is fetched from a replica.
+ * Each pool publishes its own hikaricp.* metrics, tagged with its pool name.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "cards.datasource", name = "routing", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+
+        var dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("cards-primary");
+        return dataSource;
+    }
+
+    @Bean
+    ReplicaRoutingDataSource replicaDataSource(HikariDataSource primaryDataSource, CardsProperties cardsProperties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+
+        var properties = cardsProperties.getDatasource();
+        var replicas = new LinkedHashMap<String, DataSource>();
+        for (var config : properties.getReplicas()) {
+            if (config.getPoolName() == null) {
+                config.setPoolName("cards-replica-" + replicas.size());
+            }
+            meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.getMaxReplicaLag(),
+                properties.getReplicaLagQuery(), properties.getReplicaLagColumn());
+    }
+
+    @Primary
+    @Bean
+    DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+
+        var dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
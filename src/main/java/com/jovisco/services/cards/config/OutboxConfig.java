@@ -0,0 +1,17 @@
+package com.jovisco.services.cards.config;
+
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@EnableScheduling
+@Configuration
+public class OutboxConfig {
+
+    // declared on the broker once a connection is opened - routing keys are card.created, card.updated, card.deleted
+    @Bean
+    TopicExchange cardsEventsExchange(CardsProperties cardsProperties) {
+        return new TopicExchange(cardsProperties.getOutbox().getExchange(), true, false);
+    }
+}
@@ -0,0 +1,26 @@
+package com.jovisco.services.cards.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.TransactionManager;
+
+import com.jovisco.services.cards.throttling.BulkheadTransactionManager;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@Configuration
+public class TransactionConfig {
+
+    // replaces Spring Boot's JPA transaction manager, so that transactions time out as configured for their bulkhead
+    @Bean
+    BulkheadTransactionManager transactionManager(
+            EntityManagerFactory entityManagerFactory,
+            ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+
+        var transactionManager = new BulkheadTransactionManager(entityManagerFactory);
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize((TransactionManager) transactionManager));
+        return transactionManager;
+    }
+}
@@ -0,0 +1,36 @@
+package com.jovisco.services.cards.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.jovisco.services.cards.throttling.BulkheadInterceptor;
+import com.jovisco.services.cards.throttling.ThrottlingInterceptor;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ThrottlingInterceptor throttlingInterceptor;
+
+    private final BulkheadInterceptor bulkheadInterceptor;
+
+    // replaces Spring's default CBOR converter, so that CBOR is written with the same Jackson settings as JSON
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // rate limit and shed load first, so that rejected requests do not queue up in the bulkheads
+        registry.addInterceptor(throttlingInterceptor).addPathPatterns("/api/v1/cards", "/api/v1/cards/**");
+        registry.addInterceptor(bulkheadInterceptor).addPathPatterns("/api/v1/cards", "/api/v1/cards/**");
+    }
+}
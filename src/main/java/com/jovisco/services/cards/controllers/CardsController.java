@@ -1,7 +1,14 @@
 package com.jovisco.services.cards.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -15,17 +22,35 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.jovisco.services.cards.config.CardsProperties;
 import com.jovisco.services.cards.constants.CardsConstants;
+import com.jovisco.services.cards.dtos.AmountDto;
 import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.dtos.CardLookupResultDto;
+import com.jovisco.services.cards.dtos.CardsPageDto;
 import com.jovisco.services.cards.dtos.ContactInfoDto;
 import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.dtos.CreateCardResultDto;
 import com.jovisco.services.cards.dtos.ErrorResponseDto;
+import com.jovisco.services.cards.dtos.LookupCardsDto;
 import com.jovisco.services.cards.dtos.ResponseDto;
 import com.jovisco.services.cards.services.CardsService;
+import com.jovisco.services.cards.throttling.ReadOnlyEndpoint;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -33,6 +58,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -40,13 +68,24 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @RequiredArgsConstructor
 @RestController
-@RequestMapping(path = "/api/v1", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(path = "/api/v1", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE })
 @Validated
 public class CardsController {
 
         public static final String CARDS_PATH = "/cards";
         public static final String CARDS_MOBILENUMBER_PATH = CARDS_PATH + "/{mobileNumber}";
         public static final String CARDS_VERSION_PATH = CARDS_PATH + "/version";
+        public static final String CARDS_BATCH_PATH = CARDS_PATH + "/batch";
+        public static final String CARDS_EXPORT_PATH = CARDS_PATH + "/export";
+        public static final String CARDS_LOOKUP_PATH = CARDS_PATH + "/lookup";
+        public static final String CARDS_CHARGE_PATH = CARDS_MOBILENUMBER_PATH + "/charge";
+        public static final String CARDS_CREDIT_PATH = CARDS_MOBILENUMBER_PATH + "/credit";
+
+        public static final int LIST_MAX_LIMIT = 500;
+
+        // sequence of CBOR items (RFC 8742) - the binary counterpart of newline-delimited JSON
+        public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+        public static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
 
         private final CardsService cardsService;
 
@@ -54,12 +93,17 @@ public class CardsController {
 
         private final Environment environment;
 
+        private final ObjectMapper objectMapper;
+
+        private final CardsProperties cardsProperties;
+
         @Value("${build.version}")
         private String buildVersion;
 
-        @Operation(summary = "Fetch a single card by the customer's mobile number", description = "Fetch data from card for a given mobile number")
+        @Operation(summary = "Fetch a single card by the customer's mobile number", description = "Fetch data from card for a given mobile number. The response carries an ETag - pass it in If-None-Match to get a 304 while the card is unchanged")
         @ApiResponses({
                         @ApiResponse(responseCode = "200", description = "HTTP Status OK"),
+                        @ApiResponse(responseCode = "304", description = "HTTP Status NOT_MODIFIED - the card still matches the ETag given in If-None-Match"),
                         @ApiResponse(responseCode = "404", description = "HTTP Status NOT_FOUND", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
                                         @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards/+122234567890\", \"errorCode\": \"404\", \"errorMessage\": \"Card not found ...\", \"errorTime\": \"2024-07-04T11:12:13\"}")
                         }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
@@ -70,19 +114,148 @@ public class CardsController {
         @GetMapping(CARDS_MOBILENUMBER_PATH)
         public ResponseEntity<CardDto> fetchCard(
                         @RequestHeader("jovisco-banking-correlation-id") String correlationId,
-                        @PathVariable String mobileNumber) {
+                        @PathVariable String mobileNumber,
+                        WebRequest webRequest) {
 
                 log.debug("fetchCard started");
 
+                // answer polls for an unchanged card with 304, without reading and serializing the whole card
+                if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+                        var cardVersion = cardsService.fetchCardVersion(mobileNumber);
+                        if (cardVersion.isPresent() && webRequest.checkNotModified(
+                                        eTag(cardVersion.get().getCardNumber(), cardVersion.get().getVersion()))) {
+                                log.debug("fetchCard finished - not modified");
+                                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+                        }
+                }
+
                 var cardDto = cardsService.fetchCard(mobileNumber);
 
                 log.debug("fetchCard finished");
 
                 return ResponseEntity
                                 .status(HttpStatus.OK)
+                                .eTag(eTag(cardDto.getCardNumber(), cardDto.getVersion()))
+                                .varyBy(HttpHeaders.ACCEPT)
+                                .cacheControl(CacheControl.noCache())
                                 .body(cardDto);
         }
 
+        // weak ETag - the card is served as JSON or CBOR, which are equivalent but not byte-for-byte equal.
+        // Changes with every update of the card, and with a new card for the mobile number.
+        private static String eTag(String cardNumber, Long version) {
+                return "W/\"" + cardNumber + "-" + version + "\"";
+        }
+
+        @Operation(summary = "Look up many cards at once", description = "Fetch the cards for many mobile numbers and/or card numbers in one request, and report for each of them whether a card has been found")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "HTTP Status OK", content = @Content(examples = {
+                                        @ExampleObject(value = "{\"+122234567890\": {\"status\": \"FOUND\", \"card\": {\"mobileNumber\": \"+122234567890\", \"cardNumber\": \"4000001234567899\", \"cardType\": \"Credit Card\", \"totalLimit\": 10000, \"amountUsed\": 0, \"availableAmount\": 10000, \"version\": 0}}, \"+122234567891\": {\"status\": \"NOT_FOUND\"}}") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "400", description = "HTTP Status BAD_REQUEST", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+                        @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards/lookup\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
+        })
+
+        @ReadOnlyEndpoint
+        @PostMapping(CARDS_LOOKUP_PATH)
+        public ResponseEntity<Map<String, CardLookupResultDto>> lookupCards(@RequestBody LookupCardsDto lookupCardsDto) {
+
+                var results = cardsService.lookupCards(lookupCardsDto);
+
+                return ResponseEntity
+                                .status(HttpStatus.OK)
+                                .body(results);
+        }
+
+        @Operation(summary = "List cards page by page", description = "List cards ordered by creation, optionally filtered by card type and utilisation (amount used / total limit). Pass the nextAfterId of a page as afterId to get the next page")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "HTTP Status OK", content = @Content(schema = @Schema(implementation = CardsPageDto.class), mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "400", description = "HTTP Status BAD_REQUEST", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+                        @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
+        })
+
+        @GetMapping(CARDS_PATH)
+        public ResponseEntity<CardsPageDto> listCards(
+                        @RequestParam(required = false) String cardType,
+                        @RequestParam(defaultValue = "0") @DecimalMin("0") double minUtilisation,
+                        @RequestParam(defaultValue = "1") @DecimalMin("0") double maxUtilisation,
+                        @RequestParam(defaultValue = "0") @Min(0) long afterId,
+                        @RequestParam(defaultValue = "100") @Min(1) @Max(LIST_MAX_LIMIT) int limit) {
+
+                var page = cardsService.listCards(cardType, minUtilisation, maxUtilisation, afterId, limit);
+
+                return ResponseEntity
+                                .status(HttpStatus.OK)
+                                .body(page);
+        }
+
+        @Operation(summary = "Export all cards", description = "Stream all cards as newline-delimited JSON, one card per line")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "HTTP Status OK", content = @Content(schema = @Schema(implementation = CardDto.class), mediaType = MediaType.APPLICATION_NDJSON_VALUE)),
+                        @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards/export\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
+        })
+
+        @GetMapping(path = CARDS_EXPORT_PATH, produces = MediaType.APPLICATION_NDJSON_VALUE)
+        public ResponseEntity<StreamingResponseBody> exportCards(WebRequest webRequest) {
+                return exportCards(webRequest, objectMapper, MediaType.APPLICATION_NDJSON, true);
+        }
+
+        @Operation(summary = "Export all cards as CBOR", description = "Stream all cards as a sequence of CBOR items, one card per item")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "HTTP Status OK", content = @Content(schema = @Schema(implementation = CardDto.class), mediaType = APPLICATION_CBOR_SEQ_VALUE)),
+                        @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards/export\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
+        })
+
+        @GetMapping(path = CARDS_EXPORT_PATH, produces = APPLICATION_CBOR_SEQ_VALUE)
+        public ResponseEntity<StreamingResponseBody> exportCardsAsCbor(WebRequest webRequest) {
+
+                // CBOR items delimit themselves - no separator needed
+                return exportCards(webRequest, objectMapper.copyWith(new CBORFactory()), APPLICATION_CBOR_SEQ, false);
+        }
+
+        private ResponseEntity<StreamingResponseBody> exportCards(WebRequest webRequest, ObjectMapper mapper,
+                        MediaType contentType, boolean newlineDelimited) {
+
+                // large volumes take a while to stream - allow for it on this request only, before it goes async
+                var timeout = cardsProperties.getExport().getTimeout().toMillis();
+                WebAsyncUtils.getAsyncManager(webRequest).registerCallableInterceptor(CARDS_EXPORT_PATH,
+                                new CallableProcessingInterceptor() {
+                                        @Override
+                                        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                                                if (request instanceof AsyncWebRequest asyncWebRequest) {
+                                                        asyncWebRequest.setTimeout(timeout);
+                                                }
+                                        }
+                                });
+
+                // write card by card while the cards are read from the database - nothing is collected in memory
+                var writer = mapper.writerFor(CardDto.class)
+                                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+                StreamingResponseBody body = outputStream -> {
+                        try (var generator = mapper.createGenerator(outputStream)) {
+                                cardsService.exportCards(cardDto -> {
+                                        try {
+                                                writer.writeValue(generator, cardDto);
+                                                if (newlineDelimited) {
+                                                        generator.writeRaw('\n');
+                                                }
+                                        } catch (IOException e) {
+                                                throw new UncheckedIOException(e);
+                                        }
+                                });
+                        }
+                };
+
+                return ResponseEntity
+                                .status(HttpStatus.OK)
+                                .contentType(contentType)
+                                .body(body);
+        }
+
         @Operation(summary = "Create a card", description = "Create a card")
         @ApiResponses({
                         @ApiResponse(responseCode = "201", description = "HTTP Status CREATED", content = @Content(schema = @Schema(implementation = ResponseDto.class), examples = {
@@ -110,12 +283,34 @@ public class CardsController {
                 return new ResponseEntity<ResponseDto>(body, headers, HttpStatus.CREATED);
         }
 
+        @Operation(summary = "Create many cards", description = "Create a card for each of the given mobile numbers, and report the outcome for each of them")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "HTTP Status OK", content = @Content(array = @ArraySchema(schema = @Schema(implementation = CreateCardResultDto.class)), examples = {
+                                        @ExampleObject(value = "[{\"mobileNumber\": \"+122234567890\", \"status\": \"CREATED\"}, {\"mobileNumber\": \"INVALID\", \"status\": \"INVALID\", \"message\": \"Mobile number must be valid\"}]") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "400", description = "HTTP Status BAD_REQUEST", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+                        @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards/batch\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
+        })
+
+        @PostMapping(CARDS_BATCH_PATH)
+        public ResponseEntity<List<CreateCardResultDto>> createCards(@RequestBody List<CreateCardDto> createCardDtos) {
+
+                // cards are validated one by one by the service, and reported as invalid individually
+                var results = cardsService.createCards(createCardDtos);
+
+                return ResponseEntity
+                                .status(HttpStatus.OK)
+                                .body(results);
+        }
+
         @Operation(summary = "Update a card", description = "Update a card")
         @ApiResponses({
                         @ApiResponse(responseCode = "200", description = "HTTP Status OK"),
                         @ApiResponse(responseCode = "400", description = "HTTP Status BAD_REQUEST", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
                         @ApiResponse(responseCode = "404", description = "HTTP Status NOT_FOUND", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
                                         @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards/+122234567890\", \"errorCode\": \"404\", \"errorMessage\": \"Card not found ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "409", description = "HTTP Status CONFLICT", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+                        @ApiResponse(responseCode = "422", description = "HTTP Status UNPROCESSABLE_ENTITY", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
                         @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
                                         @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
         })
@@ -143,6 +338,60 @@ public class CardsController {
                 }
         }
 
+        @Operation(summary = "Charge an amount to a card", description = "Add an amount to the amount used of a card, if the available amount covers it")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "HTTP Status OK"),
+                        @ApiResponse(responseCode = "400", description = "HTTP Status BAD_REQUEST", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+                        @ApiResponse(responseCode = "404", description = "HTTP Status NOT_FOUND", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards/+122234567890/charge\", \"errorCode\": \"404\", \"errorMessage\": \"Card not found ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "422", description = "HTTP Status UNPROCESSABLE_ENTITY", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards/+122234567890/charge\", \"errorCode\": \"422\", \"errorMessage\": \"Amount 250 exceeds the available amount ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards/+122234567890/charge\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
+        })
+
+        @PostMapping(CARDS_CHARGE_PATH)
+        public ResponseEntity<ResponseDto> chargeCard(
+                        @PathVariable String mobileNumber,
+                        @Valid @RequestBody AmountDto amountDto) {
+
+                cardsService.chargeCard(mobileNumber, amountDto.getAmount());
+
+                return ResponseEntity
+                                .status(HttpStatus.OK)
+                                .body(ResponseDto.builder()
+                                                .statusCode(CardsConstants.STATUS_200)
+                                                .statusMessage(CardsConstants.MESSAGE_200)
+                                                .build());
+        }
+
+        @Operation(summary = "Credit an amount to a card", description = "Subtract an amount from the amount used of a card, if the amount used covers it")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "HTTP Status OK"),
+                        @ApiResponse(responseCode = "400", description = "HTTP Status BAD_REQUEST", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+                        @ApiResponse(responseCode = "404", description = "HTTP Status NOT_FOUND", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards/+122234567890/credit\", \"errorCode\": \"404\", \"errorMessage\": \"Card not found ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "422", description = "HTTP Status UNPROCESSABLE_ENTITY", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards/+122234567890/credit\", \"errorCode\": \"422\", \"errorMessage\": \"Amount 250 exceeds the amount used ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/cards/+122234567890/credit\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
+        })
+
+        @PostMapping(CARDS_CREDIT_PATH)
+        public ResponseEntity<ResponseDto> creditCard(
+                        @PathVariable String mobileNumber,
+                        @Valid @RequestBody AmountDto amountDto) {
+
+                cardsService.creditCard(mobileNumber, amountDto.getAmount());
+
+                return ResponseEntity
+                                .status(HttpStatus.OK)
+                                .body(ResponseDto.builder()
+                                                .statusCode(CardsConstants.STATUS_200)
+                                                .statusMessage(CardsConstants.MESSAGE_200)
+                                                .build());
+        }
+
         @Operation(summary = "Delete a card", description = "Delete a card by mobile number")
         @ApiResponses({
                         @ApiResponse(responseCode = "200", description = "HTTP Status OK"),
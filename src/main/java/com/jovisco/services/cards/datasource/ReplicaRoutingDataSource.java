@@ -0,0 +1,126 @@
+package com.jovisco.services.cards.datasource;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands out connections of the read replicas round robin. If a maximum replica lag is given,
+ * the replicas' lag behind the primary is checked periodically, and replicas lagging further
+ * behind - or failing the check - are skipped until they have caught up. Connections of the
+ * primary are handed out while no replica is available.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+  static final String PRIMARY = "primary";
+
+  private final Map<String, DataSource> replicas;
+
+  private final Duration maxReplicaLag;
+
+  private final String replicaLagQuery;
+
+  private final String replicaLagColumn;
+
+  private final AtomicInteger next = new AtomicInteger();
+
+  private volatile List<String> availableReplicas;
+
+  public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+      Duration maxReplicaLag, String replicaLagQuery, String replicaLagColumn) {
+
+    this.replicas = new LinkedHashMap<>(replicas);
+    this.maxReplicaLag = maxReplicaLag;
+    this.replicaLagQuery = replicaLagQuery;
+    this.replicaLagColumn = replicaLagColumn;
+    this.availableReplicas = List.copyOf(replicas.keySet());
+
+    var targets = new HashMap<Object, Object>(replicas);
+    targets.put(PRIMARY, primary);
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+
+    var available = availableReplicas;
+    if (available.isEmpty()) {
+      return PRIMARY;
+    }
+
+    return available.get(Math.floorMod(next.getAndIncrement(), available.size()));
+  }
+
+  public List<String> getAvailableReplicas() {
+    return availableReplicas;
+  }
+
+  @Scheduled(fixedDelayString = "${cards.datasource.replica-lag-check-interval:PT5S}")
+  public void checkReplicaLag() {
+
+    if (maxReplicaLag == null) {
+      return;
+    }
+
+    var previous = availableReplicas;
+    var available = new ArrayList<String>();
+    replicas.forEach((name, replica) -> {
+      var lag = replicaLag(name, replica);
+      var isAvailable = lag != null && lag.compareTo(maxReplicaLag) <= 0;
+      if (isAvailable) {
+        available.add(name);
+      }
+
+      // log changes only
+      if (isAvailable && !previous.contains(name)) {
+        log.info("Replica {} has caught up with the primary, lag {}", name, lag);
+      } else if (!isAvailable && previous.contains(name)) {
+        log.warn("Replica {} is skipped, lag {} exceeds {}", name, lag == null ? "unknown" : lag, maxReplicaLag);
+      }
+    });
+
+    availableReplicas = List.copyOf(available);
+  }
+
+  private Duration replicaLag(String name, DataSource replica) {
+
+    // the lag is unknown if the replica is down, or replication has stopped
+    try (var connection = replica.getConnection();
+        var statement = connection.createStatement();
+        var resultSet = statement.executeQuery(replicaLagQuery)) {
+      if (!resultSet.next()) {
+        return null;
+      }
+      var seconds = resultSet.getLong(replicaLagColumn);
+      return resultSet.wasNull() ? null : Duration.ofSeconds(seconds);
+    } catch (SQLException e) {
+      log.debug("Replica lag of {} could not be checked", name, e);
+      return null;
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+
+    for (var replica : replicas.values()) {
+      if (replica instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+  }
+}
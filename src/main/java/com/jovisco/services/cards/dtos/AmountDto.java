@@ -0,0 +1,16 @@
+package com.jovisco.services.cards.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(name = "Amount", description = "Schema to charge an amount to a card, or credit it back")
+@NoArgsConstructor @AllArgsConstructor @Data
+public class AmountDto {
+
+  @Schema(description = "Amount to charge or credit", example = "250")
+  @Positive(message = "Amount must be greater than zero")
+  private int amount;
+}
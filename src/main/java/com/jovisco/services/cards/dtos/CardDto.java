@@ -5,11 +5,12 @@ import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
 @Schema(name = "Card", description = "Schema to transfer card data")
-@Data @Builder
+@Data @AllArgsConstructor @Builder(toBuilder = true)
 public class CardDto {
 
   @Schema(description = "Mobile phone number of customer", example = "+122234567890")
@@ -38,4 +39,7 @@ public class CardDto {
   @PositiveOrZero(message = "Available amount must be greater than or equal zero")
   private int availableAmount;
 
+  @Schema(description = "Version of the card - an update is rejected if the card has been changed since", example = "3")
+  private Long version;
+
 }
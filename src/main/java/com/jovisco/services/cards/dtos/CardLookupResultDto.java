@@ -0,0 +1,24 @@
+package com.jovisco.services.cards.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Schema(name = "Card Lookup Result", description = "Schema to hold the result for a single mobile number or card number of a lookup")
+@Data @AllArgsConstructor @Builder
+public class CardLookupResultDto {
+
+  public enum Status {
+    FOUND, NOT_FOUND
+  }
+
+  @Schema(description = "Whether a card has been found", example = "FOUND")
+  private Status status;
+
+  @Schema(description = "Card found - missing if no card has been found")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private CardDto card;
+}
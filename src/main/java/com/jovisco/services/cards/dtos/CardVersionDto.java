@@ -0,0 +1,16 @@
+package com.jovisco.services.cards.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Identifies the state of a card, without its details - a new card for the same
+ * mobile number has a new card number.
+ */
+@Data @AllArgsConstructor
+public class CardVersionDto {
+
+  private String cardNumber;
+
+  private Long version;
+}
@@ -0,0 +1,22 @@
+package com.jovisco.services.cards.dtos;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Schema(name = "Cards Page", description = "Schema to hold a page of cards, and where the next page starts")
+@Data @AllArgsConstructor @Builder
+public class CardsPageDto {
+
+  @Schema(description = "Cards of this page, ordered by creation")
+  private List<CardDto> cards;
+
+  @Schema(description = "Value of afterId to request the next page with - missing on the last page", example = "4711")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long nextAfterId;
+}
@@ -0,0 +1,24 @@
+package com.jovisco.services.cards.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Schema(name = "Create Card Result", description = "Schema to hold the result for a single card of a batch creation")
+@Data @AllArgsConstructor @Builder
+public class CreateCardResultDto {
+
+  public enum Status {
+    CREATED, ALREADY_EXISTS, INVALID
+  }
+
+  @Schema(description = "Mobile phone number of customer", example = "+122234567890")
+  private String mobileNumber;
+
+  @Schema(description = "Outcome for this card", example = "CREATED")
+  private Status status;
+
+  @Schema(description = "Reason why the card was not created", example = "Mobile number must be valid")
+  private String message;
+}
@@ -0,0 +1,20 @@
+package com.jovisco.services.cards.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(name = "Lookup Cards", description = "Schema to look up many cards at once, by mobile number and/or card number")
+@NoArgsConstructor @AllArgsConstructor @Data
+public class LookupCardsDto {
+
+  @Schema(description = "Mobile phone numbers of customers", example = "[\"+122234567890\", \"+122234567891\"]")
+  private List<String> mobileNumbers = new ArrayList<>();
+
+  @Schema(description = "Card numbers", example = "[\"4000001234567899\"]")
+  private List<String> cardNumbers = new ArrayList<>();
+}
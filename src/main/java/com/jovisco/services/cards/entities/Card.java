@@ -4,7 +4,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -12,13 +15,24 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
-@Getter @Setter @ToString @NoArgsConstructor @AllArgsConstructor @Builder
+@Getter @Setter @ToString @NoArgsConstructor @AllArgsConstructor @Builder(toBuilder = true)
 @Entity
-@Table(name = "cards")
+@Table(name = "cards", indexes = {
+    @Index(name = Card.UK_MOBILE_NUMBER, columnList = "mobile_number", unique = true),
+    @Index(name = Card.UK_CARD_NUMBER, columnList = "card_number", unique = true),
+    @Index(name = Card.IDX_CARD_TYPE_ID, columnList = "card_type, id")
+})
 public class Card extends BaseEntity {
 
+  public static final String UK_MOBILE_NUMBER = "uk_cards_mobile_number";
+  public static final String UK_CARD_NUMBER = "uk_cards_card_number";
+  public static final String IDX_CARD_TYPE_ID = "idx_cards_card_type_id";
+
+  // ids are allocated in blocks from a sequence (a table on MySQL) - unlike IDENTITY this
+  // lets Hibernate batch inserts, as the id is known before the row is written
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+  @SequenceGenerator(name = "cards_seq", sequenceName = "cards_seq", allocationSize = 50)
   private Long id;
 
   private String mobileNumber;
@@ -27,4 +41,8 @@ public class Card extends BaseEntity {
   private int totalLimit;
   private int amountUsed;
   private int availableAmount;
+
+  // incremented on every update - updates based on an outdated version of the card are rejected
+  @Version
+  private Long version;
 }
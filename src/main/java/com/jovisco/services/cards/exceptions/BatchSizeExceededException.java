@@ -0,0 +1,12 @@
+package com.jovisco.services.cards.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class BatchSizeExceededException extends RuntimeException {
+
+    public BatchSizeExceededException(int size, int maxSize) {
+        super(String.format("Batch of %d cards exceeds the maximum of %d cards", size, maxSize));
+    }
+}
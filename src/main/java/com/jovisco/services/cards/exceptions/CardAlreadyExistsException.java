@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public class CardAlreadyExistsException extends RuntimeException {
 
     public CardAlreadyExistsException(String message) {
-        super(message);
+        // without stack trace - retried creations hit this often, and the response tells all there is to know
+        super(message, null, false, false);
     }
 }
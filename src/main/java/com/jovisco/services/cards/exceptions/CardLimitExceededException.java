@@ -0,0 +1,12 @@
+package com.jovisco.services.cards.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)
+public class CardLimitExceededException extends RuntimeException {
+
+    public CardLimitExceededException(String message) {
+        super(message);
+    }
+}
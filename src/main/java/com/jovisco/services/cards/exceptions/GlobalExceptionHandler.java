@@ -1,10 +1,13 @@
 package com.jovisco.services.cards.exceptions;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -18,15 +21,26 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.jovisco.services.cards.dtos.ErrorResponseDto;
+import com.jovisco.services.cards.metrics.CardsMetrics;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolationException;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
+    // not available in web slice tests
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponseDto> handleGlobalException(
             Exception exception,
             WebRequest webRequest) {
 
+        recordException(exception, webRequest, CardsMetrics.RESULT_ERROR);
+
         var errorResponseDto = ErrorResponseDto.builder()
                 .apiPath(webRequest.getDescription(false))
                 .errorCode(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -42,6 +56,43 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
             CardAlreadyExistsException exception,
             WebRequest webRequest) {
 
+        recordException(exception, webRequest, CardsMetrics.RESULT_DUPLICATE);
+
+        var errorResponseDto = ErrorResponseDto.builder()
+                .apiPath(webRequest.getDescription(false))
+                .errorCode(HttpStatus.BAD_REQUEST)
+                .errorMessage(exception.getMessage())
+                .errorTime(LocalDateTime.now())
+                .build();
+
+        return new ResponseEntity<>(errorResponseDto, errorResponseDto.getErrorCode());
+    }
+
+    @ExceptionHandler(BatchSizeExceededException.class)
+    public ResponseEntity<ErrorResponseDto> handleBatchSizeExceededException(
+            BatchSizeExceededException exception,
+            WebRequest webRequest) {
+
+        recordException(exception, webRequest, CardsMetrics.RESULT_VALIDATION_ERROR);
+
+        var errorResponseDto = ErrorResponseDto.builder()
+                .apiPath(webRequest.getDescription(false))
+                .errorCode(HttpStatus.BAD_REQUEST)
+                .errorMessage(exception.getMessage())
+                .errorTime(LocalDateTime.now())
+                .build();
+
+        return new ResponseEntity<>(errorResponseDto, errorResponseDto.getErrorCode());
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponseDto> handleConstraintViolationException(
+            ConstraintViolationException exception,
+            WebRequest webRequest) {
+
+        // invalid request parameters, e.g. a page limit out of range
+        recordException(exception, webRequest, CardsMetrics.RESULT_VALIDATION_ERROR);
+
         var errorResponseDto = ErrorResponseDto.builder()
                 .apiPath(webRequest.getDescription(false))
                 .errorCode(HttpStatus.BAD_REQUEST)
@@ -52,11 +103,86 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponseDto, errorResponseDto.getErrorCode());
     }
 
+    @ExceptionHandler(CardLimitExceededException.class)
+    public ResponseEntity<ErrorResponseDto> handleCardLimitExceededException(
+            CardLimitExceededException exception,
+            WebRequest webRequest) {
+
+        recordException(exception, webRequest, CardsMetrics.RESULT_LIMIT_EXCEEDED);
+
+        var errorResponseDto = ErrorResponseDto.builder()
+                .apiPath(webRequest.getDescription(false))
+                .errorCode(HttpStatus.UNPROCESSABLE_ENTITY)
+                .errorMessage(exception.getMessage())
+                .errorTime(LocalDateTime.now())
+                .build();
+
+        return new ResponseEntity<>(errorResponseDto, errorResponseDto.getErrorCode());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException exception,
+            WebRequest webRequest) {
+
+        recordException(exception, webRequest, CardsMetrics.RESULT_CONFLICT);
+
+        // the card has been changed since the client read it - the client should read it again
+        var errorResponseDto = ErrorResponseDto.builder()
+                .apiPath(webRequest.getDescription(false))
+                .errorCode(HttpStatus.CONFLICT)
+                .errorMessage(exception.getMessage())
+                .errorTime(LocalDateTime.now())
+                .build();
+
+        return new ResponseEntity<>(errorResponseDto, errorResponseDto.getErrorCode());
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponseDto> handleRateLimitExceededException(
+            RateLimitExceededException exception,
+            WebRequest webRequest) {
+
+        recordException(exception, webRequest, CardsMetrics.RESULT_RATE_LIMITED);
+
+        var errorResponseDto = ErrorResponseDto.builder()
+                .apiPath(webRequest.getDescription(false))
+                .errorCode(HttpStatus.TOO_MANY_REQUESTS)
+                .errorMessage(exception.getMessage())
+                .errorTime(LocalDateTime.now())
+                .build();
+
+        return ResponseEntity.status(errorResponseDto.getErrorCode())
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(exception.getRetryAfter()))
+                .body(errorResponseDto);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponseDto> handleServiceOverloadedException(
+            ServiceOverloadedException exception,
+            WebRequest webRequest) {
+
+        recordException(exception, webRequest, CardsMetrics.RESULT_OVERLOADED);
+
+        var errorResponseDto = ErrorResponseDto.builder()
+                .apiPath(webRequest.getDescription(false))
+                .errorCode(HttpStatus.SERVICE_UNAVAILABLE)
+                .errorMessage(exception.getMessage())
+                .errorTime(LocalDateTime.now())
+                .build();
+
+        return ResponseEntity.status(errorResponseDto.getErrorCode())
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(exception.getRetryAfter()))
+                .body(errorResponseDto);
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponseDto> handleResourceNotFoundException(
             ResourceNotFoundException exception,
             WebRequest webRequest) {
 
+        recordException(exception, webRequest, CardsMetrics.RESULT_NOT_FOUND);
+
         var errorResponseDto = ErrorResponseDto.builder()
                 .apiPath(webRequest.getDescription(false))
                 .errorCode(HttpStatus.NOT_FOUND)
@@ -74,6 +200,8 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
             HttpStatusCode status,
             WebRequest request) {
 
+        recordException(ex, request, CardsMetrics.RESULT_VALIDATION_ERROR);
+
         Map<String, String> validationErrors = new HashMap<>();
         List<ObjectError> validationErrorList = ex.getBindingResult().getAllErrors();
 
@@ -85,4 +213,20 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
         return new ResponseEntity<>(validationErrors, HttpStatus.BAD_REQUEST);
     }
+
+    private void recordException(Exception exception, WebRequest webRequest, String result) {
+
+        // the result is added as tag to the request's http.server.requests metrics, too
+        CardsMetrics.setResult(webRequest, result);
+        meterRegistry.ifAvailable(registry -> registry.counter(CardsMetrics.EXCEPTIONS,
+                CardsMetrics.TYPE_TAG, exception.getClass().getSimpleName(),
+                CardsMetrics.RESULT_TAG, result)
+                .increment());
+    }
+
+    private static String retryAfterSeconds(Duration retryAfter) {
+
+        // Retry-After is given in whole seconds - round up, so that the retry is not rejected again
+        return Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
 }
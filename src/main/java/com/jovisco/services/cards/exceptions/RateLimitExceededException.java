@@ -0,0 +1,20 @@
+package com.jovisco.services.cards.exceptions;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import lombok.Getter;
+
+@Getter
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String client, Duration retryAfter) {
+        super(String.format("Rate limit exceeded for client %s, retry after %d ms", client, retryAfter.toMillis()));
+        this.retryAfter = retryAfter;
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public class ResourceNotFoundException extends RuntimeException {
 
     public ResourceNotFoundException(String resourceName, String fieldName, String fieldValue) {
-        super(String.format("%s not found with the given input data %s: %s", resourceName, fieldName, fieldValue));
+        // without stack trace - an expected outcome of every lookup of an unknown card, not worth capturing the stack
+        super(String.format("%s not found with the given input data %s: %s", resourceName, fieldName, fieldValue),
+                null, false, false);
     }
 }
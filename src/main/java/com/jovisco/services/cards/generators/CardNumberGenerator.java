@@ -0,0 +1,148 @@
+package com.jovisco.services.cards.generators;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.stereotype.Component;
+
+import com.jovisco.services.cards.config.CardsProperties;
+import com.jovisco.services.cards.util.BloomFilter;
+
+/**
+ * Generates Luhn-valid card numbers within the configured BIN range.
+ * Random digits are drawn from ThreadLocalRandom, and issued numbers are tracked in
+ * a lock-free bloom filter, so that concurrent card creations never wait for each other.
+ * With known cards enabled, the bloom filter is loaded with the card numbers in the database by
+ * the scan loading the known cards; numbers it reports as (possibly) issued are skipped. The unique constraint on the card number
+ * remains the final guard, e.g. for numbers issued by other instances.
+ */
+@Component
+public class CardNumberGenerator {
+
+  // give up skipping numbers reported by the (overfull) bloom filter, the database will tell
+  static final int MAX_SKIPS = 16;
+
+  private static final long[] POWERS_OF_TEN = new long[19];
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  private final long binFrom;
+
+  private final long binTo;
+
+  private final int binLength;
+
+  private final int accountLength;
+
+  private final BloomFilter issued;
+
+  public CardNumberGenerator(CardsProperties cardsProperties) {
+
+    var properties = cardsProperties.getCardNumber();
+    this.binFrom = properties.getBinFrom();
+    this.binTo = properties.getBinTo();
+    this.binLength = Long.toString(binTo).length();
+    this.accountLength = properties.getLength() - binLength - 1;
+
+    if (binFrom <= 0 || binFrom > binTo || Long.toString(binFrom).length() != binLength) {
+      throw new IllegalArgumentException("Invalid BIN range: " + binFrom + " - " + binTo);
+    }
+    if (accountLength < 1 || accountLength >= POWERS_OF_TEN.length) {
+      throw new IllegalArgumentException("Invalid card number length " + properties.getLength()
+          + " for BINs with " + binLength + " digits");
+    }
+
+    this.issued = new BloomFilter(properties.getExpectedCards(), properties.getFalsePositiveProbability());
+  }
+
+  /**
+   * Returns a new card number, which has (most probably) not been issued before.
+   */
+  public String generate() {
+
+    var random = ThreadLocalRandom.current();
+
+    String cardNumber = null;
+    for (int skips = 0; skips < MAX_SKIPS; skips++) {
+      cardNumber = build(random.nextLong(binFrom, binTo + 1), random.nextLong(POWERS_OF_TEN[accountLength]));
+      if (issued.put(cardNumber)) {
+        return cardNumber;
+      }
+    }
+
+    return cardNumber;
+  }
+
+  /**
+   * Marks the card number as issued, so that it is not generated again.
+   */
+  public void register(String cardNumber) {
+    issued.put(cardNumber);
+  }
+
+  /**
+   * Returns false if the card number has definitely not been issued.
+   */
+  public boolean mightBeIssued(String cardNumber) {
+    return issued.mightContain(cardNumber);
+  }
+
+  private String build(long bin, long account) {
+
+    var digits = new char[binLength + accountLength + 1];
+    fill(digits, 0, binLength, bin);
+    fill(digits, binLength, accountLength, account);
+    digits[digits.length - 1] = (char) ('0' + checkDigit(digits, digits.length - 1));
+
+    return new String(digits);
+  }
+
+  private static void fill(char[] digits, int offset, int length, long value) {
+
+    // right aligned, padded with zeros
+    for (int i = offset + length - 1; i >= offset; i--) {
+      digits[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+
+  /**
+   * Returns the Luhn check digit for the first length digits.
+   */
+  static int checkDigit(char[] digits, int length) {
+
+    // double every second digit, starting with the rightmost one
+    var sum = 0;
+    var doubled = true;
+    for (int i = length - 1; i >= 0; i--) {
+      var digit = digits[i] - '0';
+      if (doubled) {
+        digit *= 2;
+        if (digit > 9) {
+          digit -= 9;
+        }
+      }
+      sum += digit;
+      doubled = !doubled;
+    }
+
+    return (10 - sum % 10) % 10;
+  }
+
+  /**
+   * Returns true if the card number ends with a valid Luhn check digit.
+   */
+  public static boolean isLuhnValid(String cardNumber) {
+
+    if (cardNumber == null || cardNumber.length() < 2 || !cardNumber.chars().allMatch(Character::isDigit)) {
+      return false;
+    }
+
+    var digits = cardNumber.toCharArray();
+    return checkDigit(digits, digits.length - 1) == digits[digits.length - 1] - '0';
+  }
+}
@@ -0,0 +1,133 @@
+package com.jovisco.services.cards.invalidation;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.bus.ServiceMatcher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jovisco.services.cards.cache.CardsCache;
+import com.jovisco.services.cards.cache.KnownCards;
+import com.jovisco.services.cards.config.CardsProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies the invalidation events of the other instances: their cards are evicted from the cache,
+ * and their numbers registered as known. The latest sequence number is tracked per instance and
+ * epoch - events delivered again are skipped, and a gap means that events have been missed, so
+ * the whole cache is flushed (and the known cards are reloaded in the background). The first event of an instance
+ * not heard of before counts as a gap, unless it is the very first of its epoch.
+ * The events received are counted as "cards.invalidation.events", tagged with their outcome.
+ */
+@Slf4j
+@Component
+public class CardInvalidationListener {
+
+  public static final String EVENTS_METRIC = "cards.invalidation.events";
+
+  record Position(String epoch, long sequence) {
+  }
+
+  enum Outcome {
+    APPLIED, DUPLICATE, GAP
+  }
+
+  private final CardsCache cardsCache;
+
+  private final KnownCards knownCards;
+
+  private final ServiceMatcher serviceMatcher;
+
+  // latest sequence number per instance - instances no longer sending heartbeats are forgotten
+  private final Cache<String, Position> positions;
+
+  private final Counter applied;
+
+  private final Counter duplicates;
+
+  private final Counter gaps;
+
+  public CardInvalidationListener(CardsProperties cardsProperties, CardsCache cardsCache, KnownCards knownCards,
+      ObjectProvider<ServiceMatcher> serviceMatcher, MeterRegistry meterRegistry) {
+
+    this.cardsCache = cardsCache;
+    this.knownCards = knownCards;
+    this.serviceMatcher = serviceMatcher.getIfAvailable();
+    this.positions = Caffeine.newBuilder()
+        .expireAfterWrite(cardsProperties.getInvalidation().getHeartbeatInterval().multipliedBy(10)
+            .plus(Duration.ofMinutes(1)))
+        .build();
+    this.applied = counter(meterRegistry, "applied");
+    this.duplicates = counter(meterRegistry, "duplicate");
+    this.gaps = counter(meterRegistry, "gap");
+  }
+
+  @EventListener
+  public void onCardsInvalidated(CardsInvalidatedEvent event) {
+
+    // the own events are delivered locally, too
+    if (serviceMatcher == null || serviceMatcher.isFromSelf(event)) {
+      return;
+    }
+
+    // the bus is up - while it is silent, the cards of the other instances may be missing from the known cards
+    knownCards.heardFromBus();
+
+    var outcome = track(event);
+    switch (outcome) {
+      case DUPLICATE -> {
+        if (!event.isHeartbeat()) {
+          duplicates.increment();
+        }
+      }
+      case APPLIED -> {
+        event.getMobileNumbers().forEach(mobileNumber -> {
+          cardsCache.evict(mobileNumber);
+          knownCards.register(mobileNumber, null);
+        });
+        event.getCardNumbers().forEach(cardNumber -> knownCards.register(null, cardNumber));
+        applied.increment();
+      }
+      case GAP -> {
+        // any card may have changed meanwhile
+        log.info("Missed invalidations of {} before {} - flushing the cards cache", event.getOriginService(),
+            event.getSequence());
+        cardsCache.evictAll();
+        // a full scan of the cards, not to hold up the events behind this one
+        knownCards.reloadKnownCards();
+        gaps.increment();
+      }
+    }
+  }
+
+  private Outcome track(CardsInvalidatedEvent event) {
+
+    var outcome = new Outcome[1];
+    positions.asMap().compute(event.getOriginService(), (origin, latest) -> {
+      // the numbers start over with a new epoch, i.e. once the instance has been restarted
+      var current = latest != null && latest.epoch().equals(event.getEpoch()) ? latest : null;
+      var expected = current == null ? 1 : current.sequence() + 1;
+      if (event.getSequence() < expected) {
+        // delivered again, or a heartbeat without news
+        outcome[0] = Outcome.DUPLICATE;
+        return current == null ? new Position(event.getEpoch(), event.getSequence()) : current;
+      }
+      outcome[0] = event.getSequence() == expected && !event.isHeartbeat() ? Outcome.APPLIED : Outcome.GAP;
+      return new Position(event.getEpoch(), event.getSequence());
+    });
+
+    return outcome[0];
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+    return Counter.builder(EVENTS_METRIC)
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,216 @@
+package com.jovisco.services.cards.invalidation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.bus.ServiceMatcher;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.jovisco.services.cards.config.CardsProperties;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tells the other instances of the cards service about changed cards, with events broadcast over
+ * the bus. Changes are collected for a short window, and sent in one event per batch - a card
+ * changed more than once within a batch is sent once. Events are numbered; if a change cannot be
+ * sent (the queue is full, or the bus fails), its sequence number is skipped, so that the other
+ * instances see a gap and flush their caches. While idle, a heartbeat tells the latest sequence
+ * number, so that a lost last event is noticed, too.
+ * Disabled, as well as without the bus, changes are not broadcast - the caches of the other
+ * instances catch up once their cards expire.
+ */
+@Slf4j
+@Component
+public class CardInvalidationPublisher implements SmartLifecycle {
+
+  public static final String BATCH_SIZE_METRIC = "cards.invalidation.batch.size";
+
+  record Invalidation(String mobileNumber, String cardNumber) {
+  }
+
+  private final ApplicationEventPublisher applicationEventPublisher;
+
+  private final ServiceMatcher serviceMatcher;
+
+  private final Destination destination;
+
+  @Getter
+  private final boolean enabled;
+
+  private final Duration window;
+
+  private final int maxBatchSize;
+
+  private final Duration heartbeatInterval;
+
+  private final BlockingQueue<Invalidation> queue;
+
+  private final DistributionSummary batchSizes;
+
+  @Getter
+  private final String epoch = UUID.randomUUID().toString();
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private volatile boolean running;
+
+  private Thread dispatcher;
+
+  public CardInvalidationPublisher(CardsProperties cardsProperties, ApplicationEventPublisher applicationEventPublisher,
+      ObjectProvider<ServiceMatcher> serviceMatcher, ObjectProvider<Destination.Factory> destinationFactory,
+      @Value("${spring.application.name}") String applicationName, MeterRegistry meterRegistry) {
+
+    var properties = cardsProperties.getInvalidation();
+    this.applicationEventPublisher = applicationEventPublisher;
+    this.serviceMatcher = serviceMatcher.getIfAvailable();
+    // addressed to the instances of this service only
+    var factory = destinationFactory.getIfAvailable();
+    this.destination = factory == null ? null : factory.getDestination(applicationName + ":**");
+    this.enabled = properties.isEnabled() && this.serviceMatcher != null && this.destination != null;
+    this.window = properties.getWindow();
+    this.maxBatchSize = properties.getMaxBatchSize();
+    this.heartbeatInterval = properties.getHeartbeatInterval();
+    this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+    this.batchSizes = DistributionSummary.builder(BATCH_SIZE_METRIC)
+        .description("Number of cards invalidated by one event")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Broadcasts the change of the card with the mobile number - and the card number of a new card,
+   * null otherwise - with the next batch. To be called once the change has been committed.
+   */
+  public void invalidate(String mobileNumber, String cardNumber) {
+
+    if (!running) {
+      return;
+    }
+    if (!queue.offer(new Invalidation(mobileNumber, cardNumber))) {
+      // the change is lost - skip a sequence number, so that the other instances flush their caches
+      sequence.incrementAndGet();
+    }
+  }
+
+  private void runDispatcher() {
+
+    var lastSent = System.nanoTime();
+    while (running) {
+      try {
+        // wait for the first change, then collect further changes until the batch is full or the window has passed
+        var first = queue.poll(Math.max(0, lastSent + heartbeatInterval.toNanos() - System.nanoTime()),
+            TimeUnit.NANOSECONDS);
+        if (first == null) {
+          send(List.of());
+          lastSent = System.nanoTime();
+          continue;
+        }
+        var batch = new ArrayList<Invalidation>(maxBatchSize);
+        batch.add(first);
+        var deadline = System.nanoTime() + window.toNanos();
+        while (batch.size() < maxBatchSize) {
+          queue.drainTo(batch, maxBatchSize - batch.size());
+          var remaining = deadline - System.nanoTime();
+          if (batch.size() >= maxBatchSize || remaining <= 0) {
+            break;
+          }
+          var next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next != null) {
+            batch.add(next);
+          }
+        }
+        send(batch);
+        lastSent = System.nanoTime();
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  private void send(List<Invalidation> batch) {
+
+    // the same card may have been changed more than once within a batch
+    var mobileNumbers = new LinkedHashSet<String>();
+    var cardNumbers = new LinkedHashSet<String>();
+    for (var invalidation : batch) {
+      mobileNumbers.add(invalidation.mobileNumber());
+      if (invalidation.cardNumber() != null) {
+        cardNumbers.add(invalidation.cardNumber());
+      }
+    }
+
+    // a heartbeat repeats the sequence number of the latest event
+    var number = batch.isEmpty() ? sequence.get() : sequence.incrementAndGet();
+    try {
+      // sent to the bus by its listener of remote application events
+      applicationEventPublisher.publishEvent(new CardsInvalidatedEvent(this, serviceMatcher.getBusId(), destination,
+          epoch, number, List.copyOf(mobileNumbers), List.copyOf(cardNumbers)));
+      if (!batch.isEmpty()) {
+        batchSizes.record(mobileNumbers.size());
+      }
+    } catch (RuntimeException e) {
+      // the number is taken, so the other instances see a gap with the next event that gets through
+      if (batch.isEmpty()) {
+        log.debug("Failed to broadcast heartbeat {}: {}", number, e.getMessage());
+      } else {
+        log.warn("Failed to broadcast invalidation {} of {} cards: {}", number, mobileNumbers.size(), e.getMessage());
+      }
+    }
+  }
+
+  @Override
+  public void start() {
+
+    if (!enabled) {
+      return;
+    }
+    running = true;
+    dispatcher = Thread.ofPlatform().name("card-invalidation-publisher").daemon().start(this::runDispatcher);
+  }
+
+  @Override
+  public void stop() {
+
+    running = false;
+    if (dispatcher != null) {
+      dispatcher.interrupt();
+      try {
+        dispatcher.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      // send what is left
+      var batch = new ArrayList<Invalidation>();
+      queue.drainTo(batch);
+      if (!batch.isEmpty()) {
+        send(batch);
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // stop after the web server (DEFAULT_PHASE - 2048), so that no more requests change cards
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+}
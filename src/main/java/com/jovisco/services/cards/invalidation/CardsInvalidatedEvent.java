@@ -0,0 +1,50 @@
+package com.jovisco.services.cards.invalidation;
+
+import java.util.List;
+
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Getter;
+
+/**
+ * Broadcast over the bus by an instance that has changed cards, so that the other instances
+ * drop them from their caches. The events of an instance are numbered per epoch - a new epoch
+ * starts with each start of the instance - so that receivers can tell duplicates and gaps.
+ * An event without numbers is a heartbeat, telling the sequence number of the latest event.
+ */
+@Getter
+public class CardsInvalidatedEvent extends RemoteApplicationEvent {
+
+  private String epoch;
+
+  private long sequence;
+
+  // mobile numbers of the cards created, changed or deleted
+  private List<String> mobileNumbers;
+
+  // card numbers of the cards created
+  private List<String> cardNumbers;
+
+  @SuppressWarnings("unused")
+  private CardsInvalidatedEvent() {
+    // for deserialization
+  }
+
+  public CardsInvalidatedEvent(Object source, String originService, Destination destination, String epoch,
+      long sequence, List<String> mobileNumbers, List<String> cardNumbers) {
+
+    super(source, originService, destination);
+    this.epoch = epoch;
+    this.sequence = sequence;
+    this.mobileNumbers = mobileNumbers;
+    this.cardNumbers = cardNumbers;
+  }
+
+  @JsonIgnore
+  public boolean isHeartbeat() {
+    return mobileNumbers.isEmpty() && cardNumbers.isEmpty();
+  }
+}
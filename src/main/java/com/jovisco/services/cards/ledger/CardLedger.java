@@ -0,0 +1,84 @@
+package com.jovisco.services.cards.ledger;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Append-only ledger of the amounts charged to and credited on the cards. Entries are never
+ * changed nor deleted; the amount used of a card is the sum of its entries. This sum is kept
+ * in a balance snapshot per card by LedgerSnapshotter, so that a balance is read from the
+ * snapshot plus the few entries posted since - however long the card's history is.
+ * Cards charged before the ledger existed start from an opening snapshot of their amount used,
+ * taken by schema.sql.
+ */
+@RequiredArgsConstructor
+@Component
+public class CardLedger {
+
+  public enum EntryType { CHARGE, CREDIT, ADJUSTMENT }
+
+  // insert-only, keyed by an increasing id - entries are appended at the end of the table and its index
+  static final String INSERT_SQL = """
+      insert into card_ledger (card_id, entry_type, amount, posted_at, posted_by)
+      values (?, ?, ?, ?, ?)""";
+
+  // looks up the card's id within the insert, saving a round trip
+  static final String INSERT_BY_MOBILE_NUMBER_SQL = """
+      insert into card_ledger (card_id, entry_type, amount, posted_at, posted_by)
+      select id, ?, ?, ?, ? from cards where mobile_number = ?""";
+
+  static final String SNAPSHOT_SQL = """
+      select c.id, s.amount_used, s.last_entry_id from cards c
+      left join card_balance_snapshot s on s.card_id = c.id
+      where c.mobile_number = ?""";
+
+  // a range scan of idx_card_ledger_card_id_id, covering the entries posted since the snapshot only
+  static final String ENTRIES_SINCE_SNAPSHOT_SQL = """
+      select coalesce(sum(amount), 0) from card_ledger where card_id = ? and id > ?""";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Posts the change of the card's amount used - positive if charged, negative if credited.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void post(long cardId, EntryType type, long amount, String postedBy) {
+    jdbcTemplate.update(INSERT_SQL, cardId, type.name(), amount, Timestamp.valueOf(LocalDateTime.now()), postedBy);
+  }
+
+  /**
+   * Posts the change of the amount used of the card with the mobile number, like post().
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void post(String mobileNumber, EntryType type, long amount, String postedBy) {
+    jdbcTemplate.update(INSERT_BY_MOBILE_NUMBER_SQL, type.name(), amount, Timestamp.valueOf(LocalDateTime.now()),
+        postedBy, mobileNumber);
+  }
+
+  /**
+   * Returns the amount used of the card with the mobile number, as sum of its ledger entries - empty if there is no such card.
+   */
+  @Transactional(readOnly = true)
+  public Optional<Long> balanceOf(String mobileNumber) {
+
+    var snapshots = jdbcTemplate.query(SNAPSHOT_SQL, (resultSet, rowNum) -> new long[] {
+        resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3) }, mobileNumber);
+    if (snapshots.isEmpty()) {
+      return Optional.empty();
+    }
+
+    // cards without a snapshot yet have a balance of 0 up to entry 0
+    var snapshot = snapshots.get(0);
+    var sinceSnapshot = jdbcTemplate.queryForObject(ENTRIES_SINCE_SNAPSHOT_SQL, Long.class, snapshot[0], snapshot[2]);
+
+    return Optional.of(snapshot[1] + sinceSnapshot);
+  }
+}
@@ -0,0 +1,126 @@
+package com.jovisco.services.cards.ledger;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jovisco.services.cards.config.CardsProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Folds the ledger entries into the balance snapshots of their cards, incrementally: each run
+ * adds the entries posted since the previous run (up to the checkpoint kept in the database),
+ * so that every entry is summed up exactly once. Runs of several instances are serialized by
+ * locking the checkpoint.
+ * Only entries older than the settle time are folded: ids are handed out on insert, so an entry
+ * of a transaction still running may get a lower id than entries already committed - it must
+ * not end up below the checkpoint.
+ */
+@Slf4j
+@Component
+public class LedgerSnapshotter {
+
+  public static final String FOLDED_METRIC = "cards.ledger.folded";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final int batchSize;
+
+  private final Duration settleTime;
+
+  private final Counter folded;
+
+  public LedgerSnapshotter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+      CardsProperties cardsProperties, MeterRegistry meterRegistry) {
+
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.batchSize = cardsProperties.getLedger().getSnapshotBatchSize();
+    this.settleTime = cardsProperties.getLedger().getSettleTime();
+    this.folded = meterRegistry.counter(FOLDED_METRIC);
+  }
+
+  @Scheduled(fixedDelayString = "${cards.ledger.snapshot-interval:PT10S}")
+  public void scheduledSnapshot() {
+
+    try {
+      snapshot();
+    } catch (RuntimeException e) {
+      log.warn("Card balances not snapshotted, will retry: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Folds batches of settled ledger entries into the balance snapshots, until all settled entries are folded.
+   *
+   * @return number of ledger entries folded
+   */
+  public int snapshot() {
+    return snapshot(LocalDateTime.now().minus(settleTime));
+  }
+
+  /**
+   * Folds the ledger entries posted before the given time.
+   */
+  int snapshot(LocalDateTime postedBefore) {
+
+    var total = 0;
+    while (true) {
+      var count = transactionTemplate.execute(status -> foldBatch(Timestamp.valueOf(postedBefore)));
+      folded.increment(count);
+      total += count;
+      if (count < batchSize) {
+        return total;
+      }
+    }
+  }
+
+  private int foldBatch(Timestamp postedBefore) {
+
+    // locked until commit - a concurrent run waits, and continues from the new checkpoint
+    var checkpoint = jdbcTemplate.queryForObject(
+        "select last_entry_id from card_ledger_checkpoint where id = 1 for update", Long.class);
+
+    var upTo = jdbcTemplate.queryForObject("""
+        select max(id) from (
+          select id from card_ledger where id > ? and posted_at < ? order by id limit ?) batch""",
+        Long.class, checkpoint, postedBefore, batchSize);
+    if (upTo == null) {
+      return 0;
+    }
+
+    var balances = new ArrayList<Object[]>();
+    var count = new int[1];
+    jdbcTemplate.query("""
+        select card_id, sum(amount), count(*) from card_ledger where id > ? and id <= ? group by card_id""",
+        resultSet -> {
+          balances.add(new Object[] { resultSet.getLong(2), upTo, resultSet.getLong(1) });
+          count[0] += resultSet.getInt(3);
+        }, checkpoint, upTo);
+
+    // cards posted to for the first time get an empty snapshot, into which their entries are folded
+    jdbcTemplate.update("""
+        insert into card_balance_snapshot (card_id, amount_used, last_entry_id)
+        select distinct l.card_id, 0, 0 from card_ledger l
+        where l.id > ? and l.id <= ? and not exists (select 1 from card_balance_snapshot s where s.card_id = l.card_id)""",
+        checkpoint, upTo);
+    jdbcTemplate.batchUpdate("""
+        update card_balance_snapshot set amount_used = amount_used + ?, last_entry_id = ?
+        where card_id = ?""", balances);
+
+    jdbcTemplate.update("update card_ledger_checkpoint set last_entry_id = ? where id = 1", upTo);
+
+    return count[0];
+  }
+}
@@ -14,6 +14,7 @@ public class CardMapper {
         .totalLimit(card.getTotalLimit())
         .amountUsed((card.getAmountUsed()))
         .availableAmount(card.getAvailableAmount())
+        .version(card.getVersion())
         .build();
   }
 
@@ -26,6 +27,7 @@ public class CardMapper {
         .totalLimit(cardDto.getTotalLimit())
         .amountUsed((cardDto.getAmountUsed()))
         .availableAmount(cardDto.getAvailableAmount())
+        .version(cardDto.getVersion())
         .build();
   }
 }
@@ -0,0 +1,52 @@
+package com.jovisco.services.cards.metrics;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Names and tags of the metrics published by the cards service, besides the ones provided
+ * by Spring Boot (e.g. http.server.requests, spring.data.repository.invocations).
+ */
+public class CardsMetrics {
+
+  private CardsMetrics() {
+  }
+
+  // counter of the exceptions handled by GlobalExceptionHandler, tagged with type and result
+  public static final String EXCEPTIONS = "cards.exceptions";
+
+  // gauge of the requests admitted by the load shedder, and not yet completed
+  public static final String IN_FLIGHT_REQUESTS = "cards.requests.in_flight";
+
+  // gauges of the calls in and waiting for a bulkhead, and counter of the calls it rejected - tagged with the bulkhead
+  public static final String BULKHEAD_ACTIVE_CALLS = "cards.bulkhead.active_calls";
+  public static final String BULKHEAD_QUEUE_DEPTH = "cards.bulkhead.queue_depth";
+  public static final String BULKHEAD_REJECTIONS = "cards.bulkhead.rejections";
+  public static final String BULKHEAD_TAG = "bulkhead";
+  public static final String BULKHEAD_READ = "read";
+  public static final String BULKHEAD_WRITE = "write";
+
+  // tag added to http.server.requests, telling the business outcome of a request
+  public static final String RESULT_TAG = "result";
+  public static final String TYPE_TAG = "type";
+
+  public static final String RESULT_SUCCESS = "success";
+  public static final String RESULT_NOT_FOUND = "not_found";
+  public static final String RESULT_DUPLICATE = "duplicate";
+  public static final String RESULT_VALIDATION_ERROR = "validation_error";
+  public static final String RESULT_LIMIT_EXCEEDED = "limit_exceeded";
+  public static final String RESULT_CONFLICT = "conflict";
+  public static final String RESULT_RATE_LIMITED = "rate_limited";
+  public static final String RESULT_OVERLOADED = "overloaded";
+  public static final String RESULT_CLIENT_ERROR = "client_error";
+  public static final String RESULT_ERROR = "error";
+
+  static final String RESULT_ATTRIBUTE = CardsMetrics.class.getName() + ".result";
+
+  /**
+   * Records the result of the current request, to be added as tag to its http.server.requests metrics.
+   */
+  public static void setResult(WebRequest webRequest, String result) {
+    webRequest.setAttribute(RESULT_ATTRIBUTE, result, RequestAttributes.SCOPE_REQUEST);
+  }
+}
@@ -0,0 +1,43 @@
+package com.jovisco.services.cards.metrics;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+
+/**
+ * Adds the business result of a request (found, not found, duplicate, validation error ...) as
+ * tag "result" to the http.server.requests metrics, so that latency percentiles can be told
+ * apart per endpoint and result. The result is set by GlobalExceptionHandler for failed requests,
+ * and derived from the status otherwise.
+ */
+@Component
+public class CardsServerRequestObservationConvention extends DefaultServerRequestObservationConvention {
+
+  @Override
+  public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+    return super.getLowCardinalityKeyValues(context).and(KeyValue.of(CardsMetrics.RESULT_TAG, result(context)));
+  }
+
+  private String result(ServerRequestObservationContext context) {
+
+    if (context.getCarrier().getAttribute(CardsMetrics.RESULT_ATTRIBUTE) instanceof String result) {
+      return result;
+    }
+
+    var response = context.getResponse();
+    if (response == null) {
+      return CardsMetrics.RESULT_ERROR;
+    }
+    if (response.getStatus() < 400) {
+      return CardsMetrics.RESULT_SUCCESS;
+    }
+    if (response.getStatus() == HttpStatus.NOT_FOUND.value()) {
+      return CardsMetrics.RESULT_NOT_FOUND;
+    }
+    return response.getStatus() < 500 ? CardsMetrics.RESULT_CLIENT_ERROR : CardsMetrics.RESULT_ERROR;
+  }
+}
@@ -0,0 +1,33 @@
+package com.jovisco.services.cards.outbox;
+
+import java.time.LocalDateTime;
+
+import com.jovisco.services.cards.dtos.CardDto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Domain event published to other services when a card has changed.
+ * The card is the state after the change (none for deleted cards) - its version lets
+ * consumers skip events that arrive out of order. Charges and credits change the card without
+ * reading it, so their events carry the mobile number and the amount only, no card.
+ */
+@Value @Builder
+public class CardEvent {
+
+  public enum Type {
+    CARD_CREATED, CARD_UPDATED, CARD_DELETED, CARD_CHARGED, CARD_CREDITED;
+
+    public String routingKey() {
+      return name().toLowerCase().replace('_', '.');
+    }
+  }
+
+  Type type;
+  String cardNumber;
+  String mobileNumber;
+  CardDto card;
+  Integer amount;
+  LocalDateTime occurredAt;
+}
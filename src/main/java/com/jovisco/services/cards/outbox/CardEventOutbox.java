@@ -0,0 +1,75 @@
+package com.jovisco.services.cards.outbox;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes card events to the outbox table, in the transaction of the card change - so an event
+ * is published if and only if the change is committed. The events are published later on by
+ * OutboxRelay, without the caller waiting for the broker.
+ */
+@RequiredArgsConstructor
+@Component
+public class CardEventOutbox {
+
+  static final String INSERT_SQL = """
+      insert into card_outbox (event_type, aggregate_id, payload, created_at)
+      values (?, ?, ?, ?)""";
+
+  // the card number is taken from the card within the insert, instead of reading the card first
+  static final String INSERT_BY_MOBILE_NUMBER_SQL = """
+      insert into card_outbox (event_type, aggregate_id, payload, created_at)
+      select ?, card_number, ?, ? from cards where mobile_number = ?""";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final ObjectMapper objectMapper;
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void append(CardEvent event) {
+    append(List.of(event));
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void append(List<CardEvent> events) {
+
+    if (events.isEmpty()) {
+      return;
+    }
+
+    jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (statement, event) -> {
+      statement.setString(1, event.getType().name());
+      statement.setString(2, event.getCardNumber());
+      statement.setString(3, serialize(event));
+      statement.setTimestamp(4, Timestamp.valueOf(event.getOccurredAt()));
+    });
+  }
+
+  /**
+   * Writes the event of the card with the event's mobile number, like append() - for events without the card number.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void appendByMobileNumber(CardEvent event) {
+    jdbcTemplate.update(INSERT_BY_MOBILE_NUMBER_SQL, event.getType().name(), serialize(event),
+        Timestamp.valueOf(event.getOccurredAt()), event.getMobileNumber());
+  }
+
+  private String serialize(CardEvent event) {
+
+    try {
+      return objectMapper.writeValueAsString(event);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Card event cannot be serialized: " + event, e);
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.jovisco.services.cards.outbox;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Publishes card events from the outbox to the message broker.
+ */
+public interface CardEventPublisher {
+
+  /**
+   * Publishes the messages, and waits for the broker to confirm them.
+   *
+   * @param messages to publish, in outbox order
+   * @return ids of the messages the broker has confirmed - only these are removed from the outbox
+   */
+  Set<Long> publish(List<OutboxMessage> messages);
+}
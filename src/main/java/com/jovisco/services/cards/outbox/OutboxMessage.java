@@ -0,0 +1,15 @@
+package com.jovisco.services.cards.outbox;
+
+import lombok.Value;
+
+/**
+ * A card event as stored in the outbox, with its payload serialized already.
+ */
+@Value
+public class OutboxMessage {
+
+  long id;
+  CardEvent.Type type;
+  String aggregateId;
+  String payload;
+}
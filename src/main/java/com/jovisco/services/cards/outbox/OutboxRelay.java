@@ -0,0 +1,192 @@
+package com.jovisco.services.cards.outbox;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jovisco.services.cards.config.CardsProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes the card events of the outbox in batches, in the order they have been written.
+ * Events are removed from the outbox once the broker has confirmed them; if the broker is not
+ * available, they stay in the outbox and are published on one of the next runs - delivery is
+ * at least once.
+ * One instance relays at a time: it leases the relay row for twice the confirm timeout per batch,
+ * instances finding it leased skip their run - the lease of an instance gone away just expires.
+ * No connection is held while the broker confirms a batch: the batch is read, published, and the
+ * confirmed events are deleted in a short transaction of their own.
+ * Runs every poll interval, once the outbox has been emptied - an unavailable broker is logged
+ * once, until the events get through again.
+ */
+@Slf4j
+@Component
+public class OutboxRelay implements SchedulingConfigurer {
+
+  public static final String PUBLISHED_METRIC = "cards.outbox.published";
+  public static final String FAILED_METRIC = "cards.outbox.failed";
+
+  // numbers of events fetched from the outbox, and confirmed by the broker
+  record Batch(int fetched, int confirmed) {
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final CardEventPublisher cardEventPublisher;
+
+  private final int batchSize;
+
+  private final Duration pollInterval;
+
+  private final long leaseSeconds;
+
+  private final String instance = UUID.randomUUID().toString();
+
+  private final Counter published;
+
+  private final Counter failed;
+
+  // whether the previous run has failed - so that an outage is logged once, not with every run
+  private volatile boolean failing;
+
+  public OutboxRelay(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+      CardEventPublisher cardEventPublisher, CardsProperties cardsProperties, MeterRegistry meterRegistry) {
+
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.cardEventPublisher = cardEventPublisher;
+    this.batchSize = cardsProperties.getOutbox().getBatchSize();
+    this.pollInterval = cardsProperties.getOutbox().getPollInterval();
+    // leases are given in whole seconds
+    var lease = cardsProperties.getOutbox().getConfirmTimeout().multipliedBy(2);
+    this.leaseSeconds = Math.max(1, (lease.toMillis() + 999) / 1000);
+    this.published = meterRegistry.counter(PUBLISHED_METRIC);
+    this.failed = meterRegistry.counter(FAILED_METRIC);
+  }
+
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+    taskRegistrar.addFixedDelayTask(new FixedDelayTask(this::scheduledRelay, pollInterval, pollInterval));
+  }
+
+  public void scheduledRelay() {
+
+    try {
+      relay();
+      if (failing) {
+        failing = false;
+        log.info("Card events are published again");
+      }
+    } catch (RuntimeException e) {
+      if (!failing) {
+        failing = true;
+        log.warn("Card events not published, will retry every {} ms: {}", pollInterval.toMillis(), e.getMessage());
+      } else {
+        log.debug("Card events still not published: {}", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Publishes batches of card events until the outbox is empty, or a batch has not been confirmed completely.
+   *
+   * @return number of card events published
+   */
+  public int relay() {
+
+    var total = 0;
+    try {
+      while (true) {
+        var batch = relayBatch();
+        total += batch.confirmed();
+
+        // leave unconfirmed events for the next run, instead of retrying them right away
+        if (batch.fetched() < batchSize || batch.confirmed() < batch.fetched()) {
+          return total;
+        }
+      }
+    } finally {
+      release();
+    }
+  }
+
+  private Batch relayBatch() {
+
+    // leased by another instance relaying right now - this run is skipped
+    if (!lease()) {
+      return new Batch(0, 0);
+    }
+
+    var messages = fetchBatch();
+    if (messages.isEmpty()) {
+      return new Batch(0, 0);
+    }
+
+    Set<Long> confirmed;
+    try {
+      confirmed = cardEventPublisher.publish(messages);
+    } catch (RuntimeException e) {
+      failed.increment(messages.size());
+      throw e;
+    }
+
+    transactionTemplate.executeWithoutResult(status -> delete(confirmed));
+    published.increment(confirmed.size());
+    failed.increment(messages.size() - confirmed.size());
+
+    return new Batch(messages.size(), confirmed.size());
+  }
+
+  private boolean lease() {
+
+    // renews the own lease, too - the database's clock is shared by all instances
+    return jdbcTemplate.update("""
+        update card_outbox_relay set leased_by = ?, leased_until = timestampadd(second, ?, current_timestamp)
+        where id = 1 and (leased_until is null or leased_until < current_timestamp or leased_by = ?)""",
+        instance, leaseSeconds, instance) == 1;
+  }
+
+  private void release() {
+    jdbcTemplate.update(
+        "update card_outbox_relay set leased_by = null, leased_until = null where id = 1 and leased_by = ?", instance);
+  }
+
+  private List<OutboxMessage> fetchBatch() {
+
+    return jdbcTemplate.query(connection -> {
+      var statement = connection.prepareStatement(
+          "select id, event_type, aggregate_id, payload from card_outbox order by id");
+      statement.setMaxRows(batchSize);
+      return statement;
+    }, (resultSet, rowNum) -> new OutboxMessage(
+        resultSet.getLong("id"),
+        CardEvent.Type.valueOf(resultSet.getString("event_type")),
+        resultSet.getString("aggregate_id"),
+        resultSet.getString("payload")));
+  }
+
+  private void delete(Set<Long> ids) {
+
+    if (ids.isEmpty()) {
+      return;
+    }
+
+    var batch = new ArrayList<Object[]>(ids.size());
+    ids.forEach(id -> batch.add(new Object[] { id }));
+    jdbcTemplate.batchUpdate("delete from card_outbox where id = ?", batch);
+  }
+}
@@ -0,0 +1,87 @@
+package com.jovisco.services.cards.outbox;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+
+import com.jovisco.services.cards.config.CardsProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes card events to RabbitMQ with publisher confirms (spring.rabbitmq.publisher-confirm-type=correlated).
+ * All messages of a batch are sent before waiting for the confirms, so that the batch costs a
+ * single round trip to the broker rather than one per message.
+ */
+@Slf4j
+@Component
+public class RabbitCardEventPublisher implements CardEventPublisher {
+
+  private final RabbitTemplate rabbitTemplate;
+
+  private final String exchange;
+
+  private final Duration confirmTimeout;
+
+  public RabbitCardEventPublisher(RabbitTemplate rabbitTemplate, CardsProperties cardsProperties) {
+
+    this.rabbitTemplate = rabbitTemplate;
+    this.exchange = cardsProperties.getOutbox().getExchange();
+    this.confirmTimeout = cardsProperties.getOutbox().getConfirmTimeout();
+  }
+
+  @Override
+  public Set<Long> publish(List<OutboxMessage> messages) {
+
+    var correlations = new ArrayList<CorrelationData>(messages.size());
+    for (var message : messages) {
+      var amqpMessage = MessageBuilder.withBody(message.getPayload().getBytes(StandardCharsets.UTF_8))
+          .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+          .setContentEncoding(StandardCharsets.UTF_8.name())
+          .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+          // consumers may see a message more than once (e.g. if a confirm got lost) - the id lets them skip it
+          .setMessageId(Long.toString(message.getId()))
+          .setType(message.getType().name())
+          .build();
+      var correlation = new CorrelationData(Long.toString(message.getId()));
+      rabbitTemplate.send(exchange, message.getType().routingKey(), amqpMessage, correlation);
+      correlations.add(correlation);
+    }
+
+    // wait for the confirms of the whole batch, within a single deadline
+    var confirmed = new HashSet<Long>();
+    var deadline = System.nanoTime() + confirmTimeout.toNanos();
+    for (var correlation : correlations) {
+      try {
+        var confirm = correlation.getFuture().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        if (confirm.isAck()) {
+          confirmed.add(Long.valueOf(correlation.getId()));
+        } else {
+          log.warn("Card event {} not confirmed by broker: {}", correlation.getId(), confirm.getReason());
+        }
+      } catch (TimeoutException e) {
+        log.warn("Card event {} not confirmed by broker within {}", correlation.getId(), confirmTimeout);
+      } catch (ExecutionException e) {
+        log.warn("Card event {} not confirmed by broker: {}", correlation.getId(), e.getCause().getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    return confirmed;
+  }
+}
@@ -1,16 +1,120 @@
 package com.jovisco.services.cards.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.dtos.CardVersionDto;
 import com.jovisco.services.cards.entities.Card;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface CardsRepository extends JpaRepository<Card, Long> {
 
+  // constructor expression building a CardDto straight from the selected columns
+  String CARD_DTO = """
+      new com.jovisco.services.cards.dtos.CardDto(c.mobileNumber, c.cardNumber, c.cardType, c.totalLimit,
+          c.amountUsed, c.availableAmount, c.version)""";
+
   Optional<Card> findByMobileNumber(String mobileNumber);
 
   Optional<Card> findByCardNumber(String cardNumber);
+
+  boolean existsByMobileNumber(String mobileNumber);
+
+  /**
+   * Returns the card as DTO, selecting only the columns of the DTO - no entity is loaded into the persistence context.
+   * Runs in a read-only transaction of its own, unless called within a transaction.
+   */
+  @Transactional(readOnly = true)
+  @Query("select " + CARD_DTO + " from Card c where c.mobileNumber = :mobileNumber")
+  Optional<CardDto> findCardDtoByMobileNumber(String mobileNumber);
+
+  @Transactional(readOnly = true)
+  @Query("""
+      select new com.jovisco.services.cards.dtos.CardVersionDto(c.cardNumber, c.version)
+      from Card c where c.mobileNumber = :mobileNumber""")
+  Optional<CardVersionDto> findCardVersionByMobileNumber(String mobileNumber);
+
+  @Transactional(readOnly = true)
+  @Query("select " + CARD_DTO + " from Card c where c.mobileNumber in :mobileNumbers")
+  List<CardDto> findCardDtosByMobileNumberIn(Collection<String> mobileNumbers);
+
+  @Transactional(readOnly = true)
+  @Query("select " + CARD_DTO + " from Card c where c.cardNumber in :cardNumbers")
+  List<CardDto> findCardDtosByCardNumberIn(Collection<String> cardNumbers);
+
+  @Query("select c.mobileNumber from Card c where c.mobileNumber in :mobileNumbers")
+  Set<String> findExistingMobileNumbers(Collection<String> mobileNumbers);
+
+  /**
+   * Streams all cards through a forward-only cursor, fetching a bounded number of rows at a time.
+   * Must be called within a transaction, and the stream must be closed after use.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("select " + CARD_DTO + " from Card c order by c.id")
+  Stream<CardDto> streamAllCardDtosByOrderById();
+
+  /**
+   * Returns the cards following the card with the given id, ordered by id, with a utilisation
+   * (amount used / total limit) within the given range. Seeks to the first card through the primary key,
+   * so that a deep page is read as fast as the first one.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("""
+      select c from Card c
+      where c.id > :afterId
+          and c.amountUsed >= cast(:minUtilisation as Double) * c.totalLimit
+          and c.amountUsed <= cast(:maxUtilisation as Double) * c.totalLimit
+      order by c.id""")
+  List<Card> findPage(long afterId, double minUtilisation, double maxUtilisation, Limit limit);
+
+  /**
+   * Same as findPage, restricted to a card type - seeks through the index on card type and id.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("""
+      select c from Card c
+      where c.cardType = :cardType and c.id > :afterId
+          and c.amountUsed >= cast(:minUtilisation as Double) * c.totalLimit
+          and c.amountUsed <= cast(:maxUtilisation as Double) * c.totalLimit
+      order by c.id""")
+  List<Card> findPageByCardType(String cardType, long afterId, double minUtilisation, double maxUtilisation,
+      Limit limit);
+
+  /**
+   * Adds the amount to the amount used in a single conditional update, if the available amount covers it.
+   * Returns the number of updated cards - 0 if there is no such card, or the amount exceeds the available amount.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+      update Card c set c.amountUsed = c.amountUsed + :amount, c.availableAmount = c.availableAmount - :amount,
+          c.version = c.version + 1, c.updatedAt = local datetime, c.updatedBy = :updatedBy
+      where c.mobileNumber = :mobileNumber and c.availableAmount >= :amount""")
+  int chargeAmount(String mobileNumber, int amount, String updatedBy);
+
+  /**
+   * Subtracts the amount from the amount used in a single conditional update, if the amount used covers it.
+   * Returns the number of updated cards - 0 if there is no such card, or the amount exceeds the amount used.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+      update Card c set c.amountUsed = c.amountUsed - :amount, c.availableAmount = c.availableAmount + :amount,
+          c.version = c.version + 1, c.updatedAt = local datetime, c.updatedBy = :updatedBy
+      where c.mobileNumber = :mobileNumber and c.amountUsed >= :amount""")
+  int creditAmount(String mobileNumber, int amount, String updatedBy);
 }
@@ -1,7 +1,17 @@
 package com.jovisco.services.cards.services;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
 import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.dtos.CardLookupResultDto;
+import com.jovisco.services.cards.dtos.CardVersionDto;
+import com.jovisco.services.cards.dtos.CardsPageDto;
 import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.dtos.CreateCardResultDto;
+import com.jovisco.services.cards.dtos.LookupCardsDto;
 
 public interface CardsService {
 
@@ -11,6 +21,13 @@ public interface CardsService {
    */
   void createCard(CreateCardDto createCardDto);
 
+  /**
+   * 
+   * @param createCardDtos
+   * @return result for each card, in the order of the request
+   */
+  List<CreateCardResultDto> createCards(List<CreateCardDto> createCardDtos);
+
   /**
    * 
    * @param mobileNumber
@@ -18,6 +35,31 @@ public interface CardsService {
    */
   CardDto fetchCard(String mobileNumber);
 
+  /**
+   * 
+   * @param mobileNumber
+   * @return card number and version of the card, if there is a card
+   */
+  Optional<CardVersionDto> fetchCardVersion(String mobileNumber);
+
+  /**
+   * 
+   * @param lookupCardsDto mobile numbers and card numbers to look up
+   * @return result for each mobile number and card number, in the order of the request
+   */
+  Map<String, CardLookupResultDto> lookupCards(LookupCardsDto lookupCardsDto);
+
+  /**
+   * 
+   * @param cardType       only cards of this type, or all cards if null
+   * @param minUtilisation lowest utilisation (amount used / total limit) of the cards
+   * @param maxUtilisation highest utilisation (amount used / total limit) of the cards
+   * @param afterId        only cards following this one, as returned with the previous page - 0 for the first page
+   * @param limit          maximum number of cards on the page
+   * @return cards ordered by creation, and where the next page starts
+   */
+  CardsPageDto listCards(String cardType, double minUtilisation, double maxUtilisation, long afterId, int limit);
+
   /**
    * 
    * @param cardDto
@@ -25,10 +67,37 @@ public interface CardsService {
    */
   boolean updateCard(CardDto cardDto);
 
+  /**
+   * 
+   * @param mobileNumber
+   * @return amount used of the card, as rebuilt from its ledger entries
+   */
+  long fetchLedgerBalance(String mobileNumber);
+
+  /**
+   * 
+   * @param mobileNumber
+   * @param amount to add to the amount used, must not exceed the available amount
+   */
+  void chargeCard(String mobileNumber, int amount);
+
+  /**
+   * 
+   * @param mobileNumber
+   * @param amount to subtract from the amount used, must not exceed the amount used
+   */
+  void creditCard(String mobileNumber, int amount);
+
   /**
    * 
    * @param mobileNumber
    * @return boolean indicating if delete was successful
    */
   boolean deleteCard(String mobileNumber);
+
+  /**
+   * 
+   * @param consumer receives all cards one by one, ordered by creation
+   */
+  void exportCards(Consumer<CardDto> consumer);
 }
@@ -1,18 +1,59 @@
 package com.jovisco.services.cards.services;
 
-import java.util.Random;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.jovisco.services.cards.batching.CardLookupBatcher;
+import com.jovisco.services.cards.cache.CardsCache;
+import com.jovisco.services.cards.cache.KnownCards;
+import com.jovisco.services.cards.changelog.CardChange;
+import com.jovisco.services.cards.changelog.CardChangeLog;
+import com.jovisco.services.cards.config.CardsProperties;
 import com.jovisco.services.cards.constants.CardsConstants;
 import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.dtos.CardLookupResultDto;
+import com.jovisco.services.cards.dtos.CardVersionDto;
+import com.jovisco.services.cards.dtos.CardsPageDto;
 import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.dtos.CreateCardResultDto;
+import com.jovisco.services.cards.dtos.CreateCardResultDto.Status;
+import com.jovisco.services.cards.dtos.LookupCardsDto;
 import com.jovisco.services.cards.entities.Card;
+import com.jovisco.services.cards.exceptions.BatchSizeExceededException;
 import com.jovisco.services.cards.exceptions.CardAlreadyExistsException;
+import com.jovisco.services.cards.exceptions.CardLimitExceededException;
 import com.jovisco.services.cards.exceptions.ResourceNotFoundException;
+import com.jovisco.services.cards.generators.CardNumberGenerator;
+import com.jovisco.services.cards.invalidation.CardInvalidationPublisher;
+import com.jovisco.services.cards.ledger.CardLedger;
 import com.jovisco.services.cards.mappers.CardMapper;
+import com.jovisco.services.cards.outbox.CardEvent;
+import com.jovisco.services.cards.outbox.CardEventOutbox;
 import com.jovisco.services.cards.repositories.CardsRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
@@ -21,30 +62,195 @@ public class CardsServiceImpl implements CardsService {
 
   private final CardsRepository cardsRepository;
 
+  private final CardsCache cardsCache;
+
+  private final CardNumberGenerator cardNumberGenerator;
+
+  private final CardsProperties cardsProperties;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final EntityManager entityManager;
+
+  private final Validator validator;
+
+  private final AuditorAware<String> auditorAware;
+
+  private final CardChangeLog cardChangeLog;
+
+  private final CardEventOutbox cardEventOutbox;
+
+  private final CardLedger cardLedger;
+
+  private final CardLookupBatcher cardLookupBatcher;
+
+  private final KnownCards knownCards;
+
+  private final CardInvalidationPublisher cardInvalidationPublisher;
+
   @Override
   public void createCard(CreateCardDto createCardDto) {
 
-    // first check if there is already a card for the given mobile number
-    cardsRepository
-        .findByMobileNumber(createCardDto.getMobileNumber())
-        .ifPresent(c -> {
+    // insert right away - the unique constraint on the mobile number rejects duplicates,
+    // also those created concurrently by other requests
+    var maxAttempts = cardsProperties.getCardNumber().getMaxAttempts();
+    Card card;
+    for (int attempt = 1;; attempt++) {
+      // prepare data for new card - a fresh card per attempt, as a failed insert leaves its id behind
+      card = buildNewCard(createCardDto);
+      try {
+        var newCard = card;
+        transactionTemplate.executeWithoutResult(status -> {
+          knownCards.register(newCard.getMobileNumber(), newCard.getCardNumber());
+          cardsRepository.saveAndFlush(newCard);
+          cardEventOutbox.append(cardEvent(CardEvent.Type.CARD_CREATED, newCard));
+        });
+        break;
+      } catch (DataIntegrityViolationException e) {
+        if (isViolationOf(e, Card.UK_MOBILE_NUMBER)) {
           throw new CardAlreadyExistsException("Card already exists for mobile number: " + createCardDto
               .getMobileNumber());
-        });
+        }
+        // the card number has been issued before (e.g. by another instance) - try another one
+        if (!isViolationOf(e, Card.UK_CARD_NUMBER) || attempt >= maxAttempts) {
+          throw e;
+        }
+      }
+    }
 
-    // prepare data for new card
-    var card = buildNewCard(createCardDto);
-    cardsRepository.save(card);
+    // drop a possibly cached earlier card for that mobile number - here and on the other instances
+    cardsCache.evict(createCardDto.getMobileNumber());
+    cardInvalidationPublisher.invalidate(card.getMobileNumber(), card.getCardNumber());
+    cardChangeLog.record(created(card));
 
   }
 
-  private Card buildNewCard(CreateCardDto createCardDto) {
+  @Override
+  public List<CreateCardResultDto> createCards(List<CreateCardDto> createCardDtos) {
+
+    var maxSize = cardsProperties.getBatch().getMaxSize();
+    if (createCardDtos.size() > maxSize) {
+      throw new BatchSizeExceededException(createCardDtos.size(), maxSize);
+    }
+
+    // validate each card on its own, so that invalid cards do not fail the whole batch
+    var results = new CreateCardResultDto[createCardDtos.size()];
+    var positions = new LinkedHashMap<String, Integer>();
+    for (int i = 0; i < createCardDtos.size(); i++) {
+      var createCardDto = createCardDtos.get(i);
+      if (createCardDto == null) {
+        results[i] = buildResult(null, Status.INVALID, "Card must not be empty");
+        continue;
+      }
+
+      var mobileNumber = createCardDto.getMobileNumber();
+      var violations = validator.validate(createCardDto);
+      if (!violations.isEmpty()) {
+        results[i] = buildResult(mobileNumber, Status.INVALID, violations.stream()
+            .map(ConstraintViolation::getMessage)
+            .sorted()
+            .collect(Collectors.joining(", ")));
+      } else if (positions.putIfAbsent(mobileNumber, i) != null) {
+        results[i] = buildResult(mobileNumber, Status.ALREADY_EXISTS,
+            "Card occurs more than once in batch for mobile number: " + mobileNumber);
+      }
+    }
+
+    // insert the valid cards chunk by chunk, each chunk in its own transaction
+    var mobileNumbers = new ArrayList<>(positions.keySet());
+    var chunkSize = cardsProperties.getBatch().getChunkSize();
+    for (int from = 0; from < mobileNumbers.size(); from += chunkSize) {
+      var chunk = mobileNumbers.subList(from, Math.min(from + chunkSize, mobileNumbers.size()));
+      createChunk(chunk).forEach((mobileNumber, result) -> results[positions.get(mobileNumber)] = result);
+    }
+
+    return Arrays.asList(results);
+  }
+
+  private Map<String, CreateCardResultDto> createChunk(List<String> mobileNumbers) {
+
+    Map<String, CreateCardResultDto> results;
+    try {
+      results = transactionTemplate.execute(status -> insertChunk(mobileNumbers));
+    } catch (DataIntegrityViolationException e) {
+      // some card of this chunk has been created concurrently - fall back to creating the cards one by one
+      results = new HashMap<>();
+      for (var mobileNumber : mobileNumbers) {
+        try {
+          createCard(new CreateCardDto(mobileNumber));
+          results.put(mobileNumber, buildResult(mobileNumber, Status.CREATED, null));
+        } catch (CardAlreadyExistsException ex) {
+          results.put(mobileNumber, buildResult(mobileNumber, Status.ALREADY_EXISTS, ex.getMessage()));
+        }
+      }
+    }
+
+    // drop possibly cached earlier cards for the created mobile numbers
+    results.values().stream()
+        .filter(result -> result.getStatus() == Status.CREATED)
+        .forEach(result -> cardsCache.evict(result.getMobileNumber()));
+
+    return results;
+  }
+
+  private Map<String, CreateCardResultDto> insertChunk(List<String> mobileNumbers) {
+
+    // find the cards that already exist with a single query
+    var existing = cardsRepository.findExistingMobileNumbers(mobileNumbers);
+
+    var results = new HashMap<String, CreateCardResultDto>();
+    var cards = new ArrayList<Card>();
+    for (var mobileNumber : mobileNumbers) {
+      if (existing.contains(mobileNumber)) {
+        results.put(mobileNumber, buildResult(mobileNumber, Status.ALREADY_EXISTS,
+            "Card already exists for mobile number: " + mobileNumber));
+      } else {
+        cards.add(buildNewCard(new CreateCardDto(mobileNumber)));
+        results.put(mobileNumber, buildResult(mobileNumber, Status.CREATED, null));
+      }
+    }
+
+    // the inserts are sent to the database in JDBC batches on flush
+    cards.forEach(card -> knownCards.register(card.getMobileNumber(), card.getCardNumber()));
+    cardsRepository.saveAll(cards);
+    cardsRepository.flush();
+    cardEventOutbox.append(cards.stream().map(card -> cardEvent(CardEvent.Type.CARD_CREATED, card)).toList());
+    cardChangeLog.record(cards.stream().map(this::created).toList());
+    afterCommit(() -> cards.forEach(card ->
+        cardInvalidationPublisher.invalidate(card.getMobileNumber(), card.getCardNumber())));
+
+    // detach the inserted cards, so that the persistence context does not grow from chunk to chunk
+    entityManager.clear();
+
+    return results;
+  }
 
-    long randomNumber = 1000000000000000L + new Random().nextLong(900000000000000L);
+  private CreateCardResultDto buildResult(String mobileNumber, Status status, String message) {
+
+    return CreateCardResultDto.builder()
+        .mobileNumber(mobileNumber)
+        .status(status)
+        .message(message)
+        .build();
+  }
+
+  private boolean isViolationOf(DataIntegrityViolationException e, String constraintName) {
+
+    // constraint names are reported differently by the databases, e.g. "cards.uk_cards_mobile_number"
+    // on MySQL, or "PUBLIC.UK_CARDS_MOBILE_NUMBER_INDEX_3" on H2
+    if (e.getCause() instanceof ConstraintViolationException cve && cve.getConstraintName() != null) {
+      return cve.getConstraintName().toLowerCase().contains(constraintName);
+    }
+
+    var message = e.getMostSpecificCause().getMessage();
+    return message != null && message.toLowerCase().contains(constraintName);
+  }
+
+  private Card buildNewCard(CreateCardDto createCardDto) {
 
     return Card.builder()
         .mobileNumber(createCardDto.getMobileNumber())
-        .cardNumber(Long.toString(randomNumber))
+        .cardNumber(cardNumberGenerator.generate())
         .cardType(CardsConstants.CREDIT_CARD)
         .totalLimit(CardsConstants.NEW_CARD_LIMIT)
         .amountUsed(0)
@@ -54,49 +260,378 @@ public class CardsServiceImpl implements CardsService {
 
   @Override
   public CardDto fetchCard(String mobileNumber) {
-    var card = cardsRepository
-        .findByMobileNumber(mobileNumber)
-        .orElseThrow(() -> new ResourceNotFoundException("Card", "mobile number", mobileNumber));
 
-    return CardMapper.mapToCardDto(card);
+    checkKnown(mobileNumber);
+
+    // serve from cache if possible - concurrent requests for a card not cached share one query,
+    // reading the DTO's columns only, without loading the card entity
+    return cardsCache.get(mobileNumber, () -> (cardLookupBatcher.isEnabled()
+        ? cardLookupBatcher.load(mobileNumber)
+        : cardsRepository.findCardDtoByMobileNumber(mobileNumber))
+        .orElseThrow(() -> new ResourceNotFoundException("Card", "mobile number", mobileNumber)));
   }
 
+  @Override
+  public Optional<CardVersionDto> fetchCardVersion(String mobileNumber) {
+
+    if (!knownCards.mightExistWithMobileNumber(mobileNumber)) {
+      return Optional.empty();
+    }
+
+    // serve from cache if possible, otherwise read just the card number and version
+    var cached = cardsCache.get(mobileNumber);
+    if (cached.isPresent()) {
+      return cached.map(cardDto -> new CardVersionDto(cardDto.getCardNumber(), cardDto.getVersion()));
+    }
+
+    return cardsRepository.findCardVersionByMobileNumber(mobileNumber);
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public Map<String, CardLookupResultDto> lookupCards(LookupCardsDto lookupCardsDto) {
+
+    var mobileNumbers = Objects.requireNonNullElse(lookupCardsDto.getMobileNumbers(), List.<String>of());
+    var cardNumbers = Objects.requireNonNullElse(lookupCardsDto.getCardNumbers(), List.<String>of());
+
+    var maxSize = cardsProperties.getLookup().getMaxSize();
+    if (mobileNumbers.size() + cardNumbers.size() > maxSize) {
+      throw new BatchSizeExceededException(mobileNumbers.size() + cardNumbers.size(), maxSize);
+    }
+
+    // serve from cache if possible, and read the other cards with one query per kind of number -
+    // numbers unknown to the bloom filters are not found without being queried
+    var found = new HashMap<String, CardDto>();
+    // the cache generations of the cards not cached, taken before they are read
+    var uncachedMobileNumbers = new LinkedHashMap<String, Long>();
+    for (var mobileNumber : mobileNumbers) {
+      if (!knownCards.mightExistWithMobileNumber(mobileNumber)) {
+        continue;
+      }
+      cardsCache.get(mobileNumber).ifPresentOrElse(
+          cardDto -> found.put(mobileNumber, cardDto),
+          () -> uncachedMobileNumbers.put(mobileNumber, cardsCache.generation(mobileNumber)));
+    }
+
+    if (!uncachedMobileNumbers.isEmpty()) {
+      cardsRepository.findCardDtosByMobileNumberIn(uncachedMobileNumbers.keySet()).forEach(cardDto -> {
+        cardsCache.put(cardDto.getMobileNumber(), cardDto, uncachedMobileNumbers.get(cardDto.getMobileNumber()));
+        found.put(cardDto.getMobileNumber(), cardDto);
+      });
+    }
+
+    var knownCardNumbers = cardNumbers.stream().filter(knownCards::mightExistWithCardNumber).toList();
+    if (!knownCardNumbers.isEmpty()) {
+      cardsRepository.findCardDtosByCardNumberIn(knownCardNumbers)
+          .forEach(cardDto -> found.put(cardDto.getCardNumber(), cardDto));
+    }
+
+    // mobile numbers and card numbers never collide - mobile numbers start with a plus sign
+    var results = new LinkedHashMap<String, CardLookupResultDto>();
+    for (var number : mobileNumbers) {
+      results.put(number, lookupResult(found.get(number)));
+    }
+    for (var number : cardNumbers) {
+      results.put(number, lookupResult(found.get(number)));
+    }
+
+    return results;
+  }
+
+  private CardLookupResultDto lookupResult(CardDto cardDto) {
+    return cardDto == null
+        ? new CardLookupResultDto(CardLookupResultDto.Status.NOT_FOUND, null)
+        : new CardLookupResultDto(CardLookupResultDto.Status.FOUND, cardDto);
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public CardsPageDto listCards(String cardType, double minUtilisation, double maxUtilisation, long afterId,
+      int limit) {
+
+    // read one card more than requested, to know whether there is a next page
+    var cards = cardType == null
+        ? cardsRepository.findPage(afterId, minUtilisation, maxUtilisation, Limit.of(limit + 1))
+        : cardsRepository.findPageByCardType(cardType, afterId, minUtilisation, maxUtilisation, Limit.of(limit + 1));
+
+    var hasNextPage = cards.size() > limit;
+    var page = hasNextPage ? cards.subList(0, limit) : cards;
+
+    return CardsPageDto.builder()
+        .cards(page.stream().map(CardMapper::mapToCardDto).toList())
+        .nextAfterId(hasNextPage ? page.get(limit - 1).getId() : null)
+        .build();
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public void exportCards(Consumer<CardDto> consumer) {
+
+    // cards are streamed as DTOs - nothing is held by the persistence context, however many cards there are
+    try (var cardDtos = cardsRepository.streamAllCardDtosByOrderById()) {
+      cardDtos.forEach(consumer);
+    }
+  }
+
+  @Transactional
   @Override
   public boolean updateCard(CardDto cardDto) {
 
     // first check if loan exists
+    if (!knownCards.mightExistWithCardNumber(cardDto.getCardNumber())) {
+      throw new ResourceNotFoundException("Card", "card number", cardDto.getCardNumber());
+    }
     var card = cardsRepository
         .findByCardNumber(cardDto.getCardNumber())
         .orElseThrow(() -> new ResourceNotFoundException("Card", "card number", cardDto.getCardNumber()));
 
+    // reject updates based on an outdated card - changes made concurrently after this check
+    // are detected by the version check when the update is flushed
+    if (cardDto.getVersion() != null && !cardDto.getVersion().equals(card.getVersion())) {
+      throw new ObjectOptimisticLockingFailureException(Card.class, card.getId());
+    }
+    if (cardDto.getTotalLimit() < cardDto.getAmountUsed()) {
+      throw new CardLimitExceededException(String.format("Total limit %d is below the amount used %d of card: %s",
+          cardDto.getTotalLimit(), cardDto.getAmountUsed(), cardDto.getCardNumber()));
+    }
+
     // update values as requested
+    var previous = card.toBuilder().build();
     var updates = modifyCard(card, cardDto);
-    cardsRepository.save(updates);
+    knownCards.register(updates.getMobileNumber(), null);
+    cardsRepository.saveAndFlush(updates);
+    cardEventOutbox.append(cardEvent(CardEvent.Type.CARD_UPDATED, updates));
+    // the amount used is overwritten - post the difference, so that the ledger still adds up to it
+    if (previous.getAmountUsed() != updates.getAmountUsed()) {
+      cardLedger.post(updates.getId(), CardLedger.EntryType.ADJUSTMENT,
+          updates.getAmountUsed() - previous.getAmountUsed(), currentAuditor());
+    }
+    cardChangeLog.record(updated(previous, updates));
+
+    // the mobile number may have changed, so evict both the old and the new one
+    evictCards(previous.getMobileNumber(), cardDto.getMobileNumber());
 
     return true;
   }
 
   private Card modifyCard(Card card, CardDto cardDto) {
 
+    // the available amount is derived, whatever the client sent
     card.setMobileNumber(cardDto.getMobileNumber());
     card.setCardType(cardDto.getCardType());
     card.setTotalLimit(cardDto.getTotalLimit());
     card.setAmountUsed(cardDto.getAmountUsed());
-    card.setAvailableAmount(cardDto.getAvailableAmount());
+    card.setAvailableAmount(cardDto.getTotalLimit() - cardDto.getAmountUsed());
 
     return card;
   }
 
+  @Override
+  public long fetchLedgerBalance(String mobileNumber) {
+
+    checkKnown(mobileNumber);
+    return cardLedger.balanceOf(mobileNumber)
+        .orElseThrow(() -> new ResourceNotFoundException("Card", "mobile number", mobileNumber));
+  }
+
+  @Transactional
+  @Override
+  public void chargeCard(String mobileNumber, int amount) {
+
+    checkAmount(amount);
+    checkKnown(mobileNumber);
+
+    // a single conditional update - no read-modify-write, so concurrent charges never overwrite each other
+    if (cardsRepository.chargeAmount(mobileNumber, amount, currentAuditor()) == 0) {
+      throw amountRejected(mobileNumber, String.format("Amount %d exceeds the available amount of card for mobile number: %s",
+          amount, mobileNumber));
+    }
+
+    cardLedger.post(mobileNumber, CardLedger.EntryType.CHARGE, amount, currentAuditor());
+    cardEventOutbox.appendByMobileNumber(amountChangedEvent(CardEvent.Type.CARD_CHARGED, mobileNumber, amount));
+    evictCards(mobileNumber);
+    cardChangeLog.record(amountChanged(CardChange.Type.CHARGED, mobileNumber, amount));
+  }
+
+  @Transactional
+  @Override
+  public void creditCard(String mobileNumber, int amount) {
+
+    checkAmount(amount);
+    checkKnown(mobileNumber);
+
+    if (cardsRepository.creditAmount(mobileNumber, amount, currentAuditor()) == 0) {
+      throw amountRejected(mobileNumber, String.format("Amount %d exceeds the amount used of card for mobile number: %s",
+          amount, mobileNumber));
+    }
+
+    cardLedger.post(mobileNumber, CardLedger.EntryType.CREDIT, -amount, currentAuditor());
+    cardEventOutbox.appendByMobileNumber(amountChangedEvent(CardEvent.Type.CARD_CREDITED, mobileNumber, amount));
+    evictCards(mobileNumber);
+    cardChangeLog.record(amountChanged(CardChange.Type.CREDITED, mobileNumber, amount));
+  }
+
+  private void checkAmount(int amount) {
+
+    if (amount <= 0) {
+      throw new IllegalArgumentException("Amount must be greater than zero: " + amount);
+    }
+  }
+
+  private void checkKnown(String mobileNumber) {
+
+    if (!knownCards.mightExistWithMobileNumber(mobileNumber)) {
+      throw new ResourceNotFoundException("Card", "mobile number", mobileNumber);
+    }
+  }
+
+  private RuntimeException amountRejected(String mobileNumber, String message) {
+
+    // no card updated - either there is no such card, or its limit does not allow the amount
+    if (!cardsRepository.existsByMobileNumber(mobileNumber)) {
+      return new ResourceNotFoundException("Card", "mobile number", mobileNumber);
+    }
+    return new CardLimitExceededException(message);
+  }
+
+  private CardEvent cardEvent(CardEvent.Type type, Card card) {
+
+    return CardEvent.builder()
+        .type(type)
+        .cardNumber(card.getCardNumber())
+        .mobileNumber(card.getMobileNumber())
+        .card(type == CardEvent.Type.CARD_DELETED ? null : CardMapper.mapToCardDto(card))
+        .occurredAt(LocalDateTime.now())
+        .build();
+  }
+
+  private CardEvent amountChangedEvent(CardEvent.Type type, String mobileNumber, int amount) {
+
+    // the card is updated without reading it - the event tells the amount, not the card after the change
+    return CardEvent.builder()
+        .type(type)
+        .mobileNumber(mobileNumber)
+        .amount(amount)
+        .occurredAt(LocalDateTime.now())
+        .build();
+  }
+
+  private CardChange created(Card card) {
+
+    return CardChange.builder()
+        .cardNumber(card.getCardNumber())
+        .mobileNumber(card.getMobileNumber())
+        .type(CardChange.Type.CREATED)
+        .newTotalLimit(card.getTotalLimit())
+        .newAmountUsed(card.getAmountUsed())
+        .changedBy(currentAuditor())
+        .changedAt(LocalDateTime.now())
+        .build();
+  }
+
+  private CardChange updated(Card previous, Card card) {
+
+    var changedFields = new ArrayList<String>();
+    if (!Objects.equals(previous.getMobileNumber(), card.getMobileNumber())) {
+      changedFields.add("mobileNumber");
+    }
+    if (!Objects.equals(previous.getCardType(), card.getCardType())) {
+      changedFields.add("cardType");
+    }
+    if (previous.getTotalLimit() != card.getTotalLimit()) {
+      changedFields.add("totalLimit");
+    }
+    if (previous.getAmountUsed() != card.getAmountUsed()) {
+      changedFields.add("amountUsed");
+    }
+
+    return CardChange.builder()
+        .cardNumber(card.getCardNumber())
+        .mobileNumber(card.getMobileNumber())
+        .type(CardChange.Type.UPDATED)
+        .changedFields(String.join(",", changedFields))
+        .oldTotalLimit(previous.getTotalLimit())
+        .newTotalLimit(card.getTotalLimit())
+        .oldAmountUsed(previous.getAmountUsed())
+        .newAmountUsed(card.getAmountUsed())
+        .changedBy(currentAuditor())
+        .changedAt(LocalDateTime.now())
+        .build();
+  }
+
+  private CardChange deleted(Card card) {
+
+    return CardChange.builder()
+        .cardNumber(card.getCardNumber())
+        .mobileNumber(card.getMobileNumber())
+        .type(CardChange.Type.DELETED)
+        .oldTotalLimit(card.getTotalLimit())
+        .oldAmountUsed(card.getAmountUsed())
+        .changedBy(currentAuditor())
+        .changedAt(LocalDateTime.now())
+        .build();
+  }
+
+  private CardChange amountChanged(CardChange.Type type, String mobileNumber, int amount) {
+
+    // the card is updated without reading it, so neither the card number nor the amounts before are known
+    return CardChange.builder()
+        .mobileNumber(mobileNumber)
+        .type(type)
+        .changedFields("amountUsed,availableAmount")
+        .amount(amount)
+        .changedBy(currentAuditor())
+        .changedAt(LocalDateTime.now())
+        .build();
+  }
+
+  private String currentAuditor() {
+    return auditorAware.getCurrentAuditor().orElse(null);
+  }
+
+  private void evictCards(String... mobileNumbers) {
+
+    Arrays.stream(mobileNumbers).forEach(cardsCache::evict);
+
+    // evict once more after the commit, as concurrent reads may have cached the card as it was before -
+    // and have the other instances evict it, too
+    afterCommit(() -> Arrays.stream(mobileNumbers).forEach(mobileNumber -> {
+      cardsCache.evict(mobileNumber);
+      cardInvalidationPublisher.invalidate(mobileNumber, null);
+    }));
+  }
+
+  private void afterCommit(Runnable action) {
+
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  @Transactional
   @Override
   public boolean deleteCard(String mobileNumber) {
 
     // first check if card exists
+    if (!knownCards.mightExistWithMobileNumber(mobileNumber)) {
+      throw new ResourceNotFoundException("Loan", "mobile number", mobileNumber);
+    }
     var card = cardsRepository
         .findByMobileNumber(mobileNumber)
         .orElseThrow(() -> new ResourceNotFoundException("Loan", "mobile number", mobileNumber));
 
     // delete loan by id
     cardsRepository.deleteById(card.getId());
+    evictCards(mobileNumber);
+    cardEventOutbox.append(cardEvent(CardEvent.Type.CARD_DELETED, card));
+    cardChangeLog.record(deleted(card));
 
     return true;
   }
@@ -0,0 +1,95 @@
+package com.jovisco.services.cards.throttling;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * Limits the number of concurrent calls of one kind (e.g. writes), so that a burst of slow calls
+ * cannot take all threads and connections from the others. Calls beyond the limit wait in a
+ * bounded queue for a limited time - calls finding the queue full, or waiting too long, are rejected.
+ */
+public class Bulkhead {
+
+  @Getter
+  private final String name;
+
+  private final int maxConcurrentCalls;
+
+  private final int maxQueueDepth;
+
+  private final long maxWaitNanos;
+
+  @Getter
+  private final Duration transactionTimeout;
+
+  private final Semaphore permits;
+
+  private final AtomicInteger queueDepth = new AtomicInteger();
+
+  private final LongAdder rejections = new LongAdder();
+
+  public Bulkhead(String name, int maxConcurrentCalls, int maxQueueDepth, Duration maxWait,
+      Duration transactionTimeout) {
+
+    if (maxConcurrentCalls < 1 || maxQueueDepth < 0) {
+      throw new IllegalArgumentException("Invalid bulkhead " + name + ": " + maxConcurrentCalls
+          + " concurrent calls, queue depth " + maxQueueDepth);
+    }
+
+    this.name = name;
+    this.maxConcurrentCalls = maxConcurrentCalls;
+    this.maxQueueDepth = maxQueueDepth;
+    this.maxWaitNanos = maxWait.toNanos();
+    this.transactionTimeout = transactionTimeout;
+    // fair, so that queued calls are not overtaken by calls arriving later
+    this.permits = new Semaphore(maxConcurrentCalls, true);
+  }
+
+  /**
+   * Enters the bulkhead, which must be left by calling exit() once the call is finished -
+   * or returns false if the call is rejected.
+   */
+  public boolean tryEnter() throws InterruptedException {
+
+    if (permits.tryAcquire()) {
+      return true;
+    }
+
+    if (queueDepth.incrementAndGet() > maxQueueDepth) {
+      queueDepth.decrementAndGet();
+      rejections.increment();
+      return false;
+    }
+
+    try {
+      if (permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+        return true;
+      }
+      rejections.increment();
+      return false;
+    } finally {
+      queueDepth.decrementAndGet();
+    }
+  }
+
+  public void exit() {
+    permits.release();
+  }
+
+  public int getActiveCalls() {
+    return maxConcurrentCalls - permits.availablePermits();
+  }
+
+  public int getQueueDepth() {
+    return queueDepth.get();
+  }
+
+  public long getRejections() {
+    return rejections.sum();
+  }
+}
@@ -0,0 +1,124 @@
+package com.jovisco.services.cards.throttling;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.jovisco.services.cards.config.CardsProperties;
+import com.jovisco.services.cards.exceptions.ServiceOverloadedException;
+import com.jovisco.services.cards.metrics.CardsMetrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Separates reads and writes of the card endpoints into bulkheads of their own, so that a storm of
+ * (slow) writes cannot starve the card lookups. The bulkhead of the current request also determines
+ * the timeout of the transactions it starts - see {@link #currentBulkhead()}.
+ */
+@Component
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+  // the bulkhead entered by the request, to be left once the request is completed
+  static final String BULKHEAD_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".bulkhead";
+
+  private final boolean enabled;
+
+  private final Duration retryAfter;
+
+  private final Bulkhead readBulkhead;
+
+  private final Bulkhead writeBulkhead;
+
+  // the meter registry is not available in web slice tests
+  public BulkheadInterceptor(CardsProperties cardsProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+
+    var properties = cardsProperties.getBulkhead();
+    this.enabled = properties.isEnabled();
+    this.retryAfter = cardsProperties.getThrottling().getOverloadRetryAfter();
+    this.readBulkhead = bulkhead(CardsMetrics.BULKHEAD_READ, properties.getRead());
+    this.writeBulkhead = bulkhead(CardsMetrics.BULKHEAD_WRITE, properties.getWrite());
+
+    meterRegistry.ifAvailable(registry -> {
+      register(registry, readBulkhead);
+      register(registry, writeBulkhead);
+    });
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+      throws InterruptedException {
+
+    // async dispatches (e.g. of the card export) belong to a request already admitted
+    if (!enabled || request.getDispatcherType() != DispatcherType.REQUEST) {
+      return true;
+    }
+
+    var bulkhead = isRead(request, handler) ? readBulkhead : writeBulkhead;
+    if (!bulkhead.tryEnter()) {
+      throw new ServiceOverloadedException("Too many " + bulkhead.getName() + " requests, request rejected",
+          retryAfter);
+    }
+    request.setAttribute(BULKHEAD_ATTRIBUTE, bulkhead);
+
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+      Exception exception) {
+
+    if (request.getAttribute(BULKHEAD_ATTRIBUTE) instanceof Bulkhead bulkhead) {
+      request.removeAttribute(BULKHEAD_ATTRIBUTE);
+      bulkhead.exit();
+    }
+  }
+
+  /**
+   * Returns the bulkhead entered by the request handled by the current thread, or null if there is none
+   * (e.g. a scheduled job, or the card export streamed on a thread of its own).
+   */
+  public static Bulkhead currentBulkhead() {
+
+    var attributes = RequestContextHolder.getRequestAttributes();
+    return attributes != null
+        && attributes.getAttribute(BULKHEAD_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Bulkhead bulkhead
+            ? bulkhead
+            : null;
+  }
+
+  private static boolean isRead(HttpServletRequest request, Object handler) {
+
+    var method = HttpMethod.valueOf(request.getMethod());
+    return method == HttpMethod.GET || method == HttpMethod.HEAD
+        || handler instanceof HandlerMethod handlerMethod && handlerMethod.hasMethodAnnotation(ReadOnlyEndpoint.class);
+  }
+
+  private static Bulkhead bulkhead(String name, CardsProperties.Bulkhead.Compartment properties) {
+    return new Bulkhead(name, properties.getMaxConcurrentCalls(), properties.getMaxQueueDepth(),
+        properties.getMaxWait(), properties.getTransactionTimeout());
+  }
+
+  private static void register(MeterRegistry registry, Bulkhead bulkhead) {
+
+    Gauge.builder(CardsMetrics.BULKHEAD_ACTIVE_CALLS, bulkhead, Bulkhead::getActiveCalls)
+        .tag(CardsMetrics.BULKHEAD_TAG, bulkhead.getName())
+        .register(registry);
+    Gauge.builder(CardsMetrics.BULKHEAD_QUEUE_DEPTH, bulkhead, Bulkhead::getQueueDepth)
+        .tag(CardsMetrics.BULKHEAD_TAG, bulkhead.getName())
+        .register(registry);
+    FunctionCounter.builder(CardsMetrics.BULKHEAD_REJECTIONS, bulkhead, Bulkhead::getRejections)
+        .tag(CardsMetrics.BULKHEAD_TAG, bulkhead.getName())
+        .register(registry);
+  }
+}
@@ -0,0 +1,31 @@
+package com.jovisco.services.cards.throttling;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Gives transactions without a timeout of their own the transaction timeout of the bulkhead
+ * of the current request. The timeout is applied to each statement, too: a statement is
+ * cancelled once the remaining time of its transaction is up, e.g. while waiting for a lock.
+ */
+public class BulkheadTransactionManager extends JpaTransactionManager {
+
+  public BulkheadTransactionManager(EntityManagerFactory entityManagerFactory) {
+    super(entityManagerFactory);
+  }
+
+  @Override
+  protected int determineTimeout(TransactionDefinition definition) {
+
+    var bulkhead = BulkheadInterceptor.currentBulkhead();
+    if (definition.getTimeout() != TransactionDefinition.TIMEOUT_DEFAULT || bulkhead == null
+        || bulkhead.getTransactionTimeout() == null) {
+      return super.determineTimeout(definition);
+    }
+
+    // transaction timeouts are given in whole seconds
+    return (int) Math.max(1, (bulkhead.getTransactionTimeout().toMillis() + 999) / 1000);
+  }
+}
@@ -0,0 +1,65 @@
+package com.jovisco.services.cards.throttling;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Token bucket per client, implemented as generic cell rate algorithm (GCRA): the state of a
+ * client's bucket is a single timestamp - the theoretical arrival time of its next request - which
+ * is advanced with compare-and-set. Requests of the same client never block each other, and
+ * requests of different clients share nothing but the (concurrent) map of buckets.
+ * Buckets of idle clients are dropped, and the number of buckets is bounded.
+ */
+public class ClientRateLimiter {
+
+  private final long emissionIntervalNanos;
+
+  private final long burstToleranceNanos;
+
+  private final LongSupplier nanoClock;
+
+  private final Cache<String, AtomicLong> theoreticalArrivalTimes;
+
+  public ClientRateLimiter(double requestsPerSecond, int burst, long maximumClients, LongSupplier nanoClock) {
+
+    if (requestsPerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException("Invalid rate limit: " + requestsPerSecond + "/s, burst " + burst);
+    }
+
+    this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+    this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+    this.nanoClock = nanoClock;
+
+    // a bucket idle for longer than it takes to refill is full again, and need not be kept
+    this.theoreticalArrivalTimes = Caffeine.newBuilder()
+        .maximumSize(maximumClients)
+        .expireAfterAccess(Duration.ofNanos(emissionIntervalNanos + burstToleranceNanos))
+        .build();
+  }
+
+  /**
+   * Takes a token from the client's bucket.
+   * Returns zero if the request is allowed, or else the time until the next token is available.
+   */
+  public Duration tryAcquire(String client) {
+
+    var theoreticalArrivalTime = theoreticalArrivalTimes.get(client, key -> new AtomicLong(nanoClock.getAsLong()));
+    while (true) {
+      var now = nanoClock.getAsLong();
+      var current = theoreticalArrivalTime.get();
+      var start = current - now > 0 ? current : now;
+      var wait = start - now - burstToleranceNanos;
+      if (wait > 0) {
+        return Duration.ofNanos(wait);
+      }
+      if (theoreticalArrivalTime.compareAndSet(current, start + emissionIntervalNanos)) {
+        return Duration.ZERO;
+      }
+    }
+  }
+}
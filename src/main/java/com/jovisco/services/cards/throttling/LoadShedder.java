@@ -0,0 +1,51 @@
+package com.jovisco.services.cards.throttling;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Rejects requests while the service is saturated: when too many requests are in flight, or
+ * too many threads are waiting for a database connection - a request admitted then would only
+ * queue up behind them, and time out anyway.
+ */
+public class LoadShedder {
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private final int maxInFlight;
+
+  private final int maxPendingConnections;
+
+  private final IntSupplier pendingConnections;
+
+  public LoadShedder(int maxInFlight, int maxPendingConnections, IntSupplier pendingConnections) {
+    this.maxInFlight = maxInFlight;
+    this.maxPendingConnections = maxPendingConnections;
+    this.pendingConnections = pendingConnections;
+  }
+
+  /**
+   * Admits a request, which must call exit() once it is finished - or returns false if the request is to be shed.
+   */
+  public boolean tryEnter() {
+
+    if (pendingConnections.getAsInt() > maxPendingConnections) {
+      return false;
+    }
+
+    if (inFlight.incrementAndGet() > maxInFlight) {
+      inFlight.decrementAndGet();
+      return false;
+    }
+
+    return true;
+  }
+
+  public void exit() {
+    inFlight.decrementAndGet();
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+}
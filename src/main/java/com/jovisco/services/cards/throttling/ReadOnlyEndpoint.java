@@ -0,0 +1,17 @@
+package com.jovisco.services.cards.throttling;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an endpoint that only reads, although it is not called with GET (e.g. a lookup posting its
+ * keys in the request body) - it is served by the read bulkhead, instead of the write bulkhead.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnlyEndpoint {
+}
@@ -0,0 +1,128 @@
+package com.jovisco.services.cards.throttling;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.IntSupplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.jovisco.services.cards.config.CardsProperties;
+import com.jovisco.services.cards.exceptions.RateLimitExceededException;
+import com.jovisco.services.cards.exceptions.ServiceOverloadedException;
+import com.jovisco.services.cards.metrics.CardsMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rate limits the card endpoints per client, and sheds load while the service is saturated.
+ * Rejected requests never reach the controller - they are answered by GlobalExceptionHandler
+ * with 429 (rate limit of the client exceeded) or 503 (service overloaded), and a Retry-After header.
+ * The client is identified by the client header as given - the gateway must set it from the
+ * authenticated client, replacing any value sent by the client, as a client could otherwise escape
+ * its limit by changing the header.
+ */
+@Slf4j
+@Component
+public class ThrottlingInterceptor implements AsyncHandlerInterceptor {
+
+  // the load shedder is left once the request is completed - only if it has been entered
+  static final String ADMITTED_ATTRIBUTE = ThrottlingInterceptor.class.getName() + ".admitted";
+
+  private final boolean enabled;
+
+  private final String clientHeader;
+
+  private final Duration overloadRetryAfter;
+
+  private final ClientRateLimiter rateLimiter;
+
+  private final LoadShedder loadShedder;
+
+  // data source and meter registry are not available in web slice tests
+  public ThrottlingInterceptor(
+      CardsProperties cardsProperties,
+      ObjectProvider<DataSource> dataSource,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+
+    var properties = cardsProperties.getThrottling();
+    this.enabled = properties.isEnabled();
+    this.clientHeader = properties.getClientHeader();
+    this.overloadRetryAfter = properties.getOverloadRetryAfter();
+    this.rateLimiter = new ClientRateLimiter(
+        properties.getRequestsPerSecond(), properties.getBurst(), properties.getMaxClients(), System::nanoTime);
+    this.loadShedder = new LoadShedder(
+        properties.getMaxInFlightRequests(),
+        properties.getMaxPendingConnections(),
+        pendingConnections(dataSource.getIfAvailable()));
+
+    meterRegistry.ifAvailable(
+        registry -> registry.gauge(CardsMetrics.IN_FLIGHT_REQUESTS, loadShedder, LoadShedder::getInFlight));
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+
+    // async dispatches (e.g. of the card export) belong to a request already admitted
+    if (!enabled || request.getDispatcherType() != DispatcherType.REQUEST) {
+      return true;
+    }
+
+    var client = client(request);
+    var wait = rateLimiter.tryAcquire(client);
+    if (!wait.isZero()) {
+      throw new RateLimitExceededException(client, wait);
+    }
+
+    if (!loadShedder.tryEnter()) {
+      throw new ServiceOverloadedException("Service overloaded, request rejected", overloadRetryAfter);
+    }
+    request.setAttribute(ADMITTED_ATTRIBUTE, Boolean.TRUE);
+
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+      Exception exception) {
+
+    if (request.getAttribute(ADMITTED_ATTRIBUTE) != null) {
+      request.removeAttribute(ADMITTED_ATTRIBUTE);
+      loadShedder.exit();
+    }
+  }
+
+  private String client(HttpServletRequest request) {
+
+    // clients not telling who they are share the rate limit of their address
+    var client = request.getHeader(clientHeader);
+    return client != null && !client.isBlank() ? client : request.getRemoteAddr();
+  }
+
+  private static IntSupplier pendingConnections(DataSource dataSource) {
+
+    // Hikari tells how many threads wait for a connection - other pools are not watched
+    try {
+      if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+        var hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+        return () -> {
+          // the pool is started with the first connection
+          var pool = hikariDataSource.getHikariPoolMXBean();
+          return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+        };
+      }
+    } catch (SQLException e) {
+      log.warn("Connection pool not watched for load shedding: {}", e.getMessage());
+    }
+
+    return () -> 0;
+  }
+}
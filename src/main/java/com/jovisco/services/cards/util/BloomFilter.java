@@ -0,0 +1,109 @@
+package com.jovisco.services.cards.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe bloom filter of strings, without any locks - bits are set with
+ * compare-and-set on an AtomicLongArray, so concurrent puts never block each other.
+ * mightContain() never returns false for a string that has been put, but may return
+ * true for a string that has not, with about the given false positive probability
+ * as long as no more than the expected number of strings have been put.
+ */
+public class BloomFilter {
+
+  private final AtomicLongArray bits;
+
+  private final long numBits;
+
+  private final int numHashes;
+
+  public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+
+    if (expectedInsertions <= 0) {
+      throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+    }
+    if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+      throw new IllegalArgumentException("False positive probability must be between 0 and 1: "
+          + falsePositiveProbability);
+    }
+
+    // optimal sizes: m = -n * ln(p) / ln(2)^2, k = m / n * ln(2)
+    var optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability)
+        / (Math.log(2) * Math.log(2)));
+    var words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+    this.bits = new AtomicLongArray(words);
+    this.numBits = (long) words * 64;
+    this.numHashes = (int) Math.max(1, Math.round((double) numBits / expectedInsertions * Math.log(2)));
+  }
+
+  /**
+   * Adds the value to the filter.
+   * Returns true if any bit changed, i.e. the value has definitely not been put before.
+   */
+  public boolean put(String value) {
+
+    var hash1 = hash(value);
+    var hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+
+    var changed = false;
+    for (int i = 0; i < numHashes; i++) {
+      var index = Math.floorMod(hash1 + i * hash2, numBits);
+      var word = (int) (index >>> 6);
+      var mask = 1L << index;
+      // skip the (contended) write if the bit is set already
+      if ((bits.get(word) & mask) == 0) {
+        var previous = bits.getAndAccumulate(word, mask, (current, bit) -> current | bit);
+        changed |= (previous & mask) == 0;
+      }
+    }
+
+    return changed;
+  }
+
+  public boolean mightContain(String value) {
+
+    var hash1 = hash(value);
+    var hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+
+    for (int i = 0; i < numHashes; i++) {
+      var index = Math.floorMod(hash1 + i * hash2, numBits);
+      if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  public long bitSize() {
+    return numBits;
+  }
+
+  public int hashCount() {
+    return numHashes;
+  }
+
+  // 64 bit FNV-1a, finished with the murmur3 mixer to spread similar strings (like card numbers) apart
+  private static long hash(String value) {
+
+    var hash = 0xCBF29CE484222325L;
+    for (var b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xFF;
+      hash *= 0x100000001B3L;
+    }
+
+    return mix(hash);
+  }
+
+  private static long mix(long hash) {
+
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB93FE1A85EC5L;
+    hash ^= hash >>> 33;
+
+    return hash;
+  }
+}
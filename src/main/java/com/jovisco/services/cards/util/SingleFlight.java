@@ -0,0 +1,101 @@
+package com.jovisco.services.cards.util;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller (the leader) loads the value on its
+ * own thread, callers arriving while the load is in flight wait for and share its result - or its
+ * exception, which is rethrown to each of them. Once the load is completed, the next caller starts
+ * a new one; results are not cached.
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  private final long maxWaitNanos;
+
+  private final LongAdder loads = new LongAdder();
+
+  private final LongAdder coalesced = new LongAdder();
+
+  public SingleFlight(Duration maxWait) {
+    this.maxWaitNanos = maxWait.toNanos();
+  }
+
+  /**
+   * Returns the value loaded for the key, by this caller or by a concurrent one.
+   * Callers waiting for a concurrent load longer than the maximum wait get a QueryTimeoutException.
+   */
+  public V load(K key, Supplier<V> loader) {
+
+    var flight = new CompletableFuture<V>();
+    var existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      coalesced.increment();
+      return await(key, existing);
+    }
+
+    loads.increment();
+    try {
+      var value = loader.get();
+      // leave the flight before completing it, so that callers arriving later load anew
+      inFlight.remove(key, flight);
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      inFlight.remove(key, flight);
+      flight.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Lets callers arriving from now on start a new load, instead of joining the one in flight -
+   * e.g. once the value has been changed, and the load in flight may return the value before.
+   * The forgotten load still completes, and returns its value to its leader and the callers that
+   * joined it - it is up to them not to keep that value, see CardsCache.
+   */
+  public void forget(K key) {
+    inFlight.remove(key);
+  }
+
+  public long getLoads() {
+    return loads.sum();
+  }
+
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  private V await(K key, CompletableFuture<V> flight) {
+
+    try {
+      return flight.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      // the leader's exception, as thrown to the leader
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (TimeoutException e) {
+      throw new QueryTimeoutException("Gave up waiting for the concurrent load of " + key + " after "
+          + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " ms", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while waiting for the concurrent load of " + key);
+    }
+  }
+}
@@ -0,0 +1,7 @@
+-- runs after schema.sql. Indexes are created here and in schema-mysql.sql, as MySQL has no create index if not exists.
+
+-- lets listings by card type seek to the first card of a page
+create index if not exists idx_cards_card_type_id on cards (card_type, id);
+
+-- lets balance reads seek to the entries of a card posted since its snapshot
+create index if not exists idx_card_ledger_card_id_id on card_ledger (card_id, id);
@@ -0,0 +1,60 @@
+-- runs after schema.sql, migrating tables created by earlier versions in place. MySQL has no add column /
+-- constraint / index if not exists - each change is only made if information_schema does not list it yet.
+
+-- card ids are bigints taken from cards_seq, no longer auto increment ints
+set @ddl = if((select count(*) from information_schema.columns
+    where table_schema = database() and table_name = 'cards' and column_name = 'id' and data_type <> 'bigint') = 1,
+  'alter table cards modify id bigint not null', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- MySQL has no sequences, so Hibernate emulates cards_seq with a single row table.
+-- The seed continues after the highest existing id (plus one allocation block of 50).
+create table if not exists cards_seq (
+  next_val bigint not null
+);
+
+insert into cards_seq (next_val)
+select seed.next_val from (select coalesce(max(id), 0) + 50 as next_val from cards) seed
+where not exists (select 1 from cards_seq);
+
+-- optimistic locking of card updates
+set @ddl = if((select count(*) from information_schema.columns
+    where table_schema = database() and table_name = 'cards' and column_name = 'version') = 0,
+  'alter table cards add column version bigint default 0 not null after available_amount', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- cards are created without checking for an existing one first - fails if the table already holds duplicates,
+-- which then have to be resolved by hand
+set @ddl = if((select count(*) from information_schema.table_constraints
+    where table_schema = database() and table_name = 'cards' and constraint_name = 'uk_cards_mobile_number') = 0,
+  'alter table cards add constraint uk_cards_mobile_number unique (mobile_number)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+set @ddl = if((select count(*) from information_schema.table_constraints
+    where table_schema = database() and table_name = 'cards' and constraint_name = 'uk_cards_card_number') = 0,
+  'alter table cards add constraint uk_cards_card_number unique (card_number)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- lets listings by card type seek to the first card of a page
+set @ddl = if((select count(*) from information_schema.statistics
+    where table_schema = database() and table_name = 'cards' and index_name = 'idx_cards_card_type_id') = 0,
+  'create index idx_cards_card_type_id on cards (card_type, id)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- lets balance reads seek to the entries of a card posted since its snapshot
+set @ddl = if((select count(*) from information_schema.statistics
+    where table_schema = database() and table_name = 'card_ledger' and index_name = 'idx_card_ledger_card_id_id') = 0,
+  'create index idx_card_ledger_card_id_id on card_ledger (card_id, id)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
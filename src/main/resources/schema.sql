@@ -1,13 +1,84 @@
+-- tables are only created if missing - columns and constraints added later are migrated by schema-mysql.sql
 create table if not exists cards (
-  id int not null auto_increment primary key,
+  id bigint not null primary key,
   mobile_number varchar(20) not null,
   card_number varchar(100) not null,
   card_type varchar(100) not null,
   total_limit int not null,
   amount_used int not null,
   available_amount int not null,
+  version bigint default 0 not null,
   created_at date not null,
   created_by varchar(30) not null,
   updated_at date default null,
-  updated_by varchar(30) default null
+  updated_by varchar(30) default null,
+  constraint uk_cards_mobile_number unique (mobile_number),
+  constraint uk_cards_card_number unique (card_number)
 );
+
+create table if not exists card_change_log (
+  id bigint auto_increment primary key,
+  card_number varchar(100) default null,
+  mobile_number varchar(20) not null,
+  change_type varchar(20) not null,
+  changed_fields varchar(200) default null,
+  old_total_limit int default null,
+  new_total_limit int default null,
+  old_amount_used int default null,
+  new_amount_used int default null,
+  amount int default null,
+  changed_by varchar(30) not null,
+  changed_at timestamp not null
+);
+
+create table if not exists card_outbox (
+  id bigint auto_increment primary key,
+  event_type varchar(30) not null,
+  aggregate_id varchar(100) not null,
+  payload varchar(4000) not null,
+  created_at timestamp not null
+);
+
+-- leased by the instance relaying the outbox, so that events are published by one instance at a time
+create table if not exists card_outbox_relay (
+  id int not null primary key,
+  leased_by varchar(100) default null,
+  leased_until timestamp default null
+);
+
+insert into card_outbox_relay (id)
+select 1 from dual where not exists (select 1 from card_outbox_relay where id = 1);
+
+-- append-only: entries are inserted at the end of the primary key, and never updated nor deleted
+create table if not exists card_ledger (
+  id bigint auto_increment primary key,
+  card_id bigint not null,
+  entry_type varchar(20) not null,
+  amount bigint not null,
+  posted_at timestamp not null,
+  posted_by varchar(30) default null
+);
+
+-- sum of the ledger entries of a card, up to (and including) last_entry_id
+create table if not exists card_balance_snapshot (
+  card_id bigint not null primary key,
+  amount_used bigint not null,
+  last_entry_id bigint not null
+);
+
+-- opening balance of the cards charged before the ledger existed: their amount used, with no entries
+-- posted yet. New cards start at 0, so only such cards have an amount used without snapshot nor entries.
+insert into card_balance_snapshot (card_id, amount_used, last_entry_id)
+select c.id, c.amount_used, 0 from cards c
+where c.amount_used <> 0
+  and not exists (select 1 from card_balance_snapshot s where s.card_id = c.id)
+  and not exists (select 1 from card_ledger l where l.card_id = c.id);
+
+-- the ledger entries up to last_entry_id have been folded into the balance snapshots
+create table if not exists card_ledger_checkpoint (
+  id int not null primary key,
+  last_entry_id bigint not null
+);
+
+insert into card_ledger_checkpoint (id, last_entry_id)
+select 1, 0 from dual where not exists (select 1 from card_ledger_checkpoint where id = 1);
@@ -0,0 +1,130 @@
+package com.jovisco.services.cards;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.services.CardsService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares throughput and p99 latency of card lookups with requests handled on
+ * platform threads and on virtual threads, against the H2 (dev) profile.
+ * Not part of the regular test run - start it with: mvn test -Dtest=VirtualThreadsLoadIT
+ */
+@Slf4j
+public class VirtualThreadsLoadIT {
+
+  static final int CONCURRENCY = 400;
+  static final int WARM_UP_REQUESTS = 5_000;
+  static final int REQUESTS = 20_000;
+
+  final String mobileNumber = "+122234567890";
+
+  record LoadResult(String mode, double requestsPerSecond, double p50Millis, double p99Millis, int errors) {
+  }
+
+  @Test
+  void testCompareThroughputAndLatency() throws Exception {
+
+    var platform = runLoad(false);
+    var virtual = runLoad(true);
+
+    for (var result : new LoadResult[] { platform, virtual }) {
+      log.info(String.format("%-8s %10.0f req/s   p50 %8.2f ms   p99 %8.2f ms   errors %d",
+          result.mode(), result.requestsPerSecond(), result.p50Millis(), result.p99Millis(), result.errors()));
+    }
+
+    assertThat(platform.errors()).isZero();
+    assertThat(virtual.errors()).isZero();
+  }
+
+  private LoadResult runLoad(boolean virtualThreads) throws Exception {
+
+    // same pool sizes for both modes - the cache is off, so that every request goes to the database
+    try (var context = new SpringApplicationBuilder(CardsApplication.class)
+        .profiles("dev")
+        .run(
+            "--server.port=0",
+            "--spring.threads.virtual.enabled=" + virtualThreads,
+            "--server.tomcat.threads.max=50",
+            "--spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";DB_CLOSE_ON_EXIT=FALSE",
+            "--spring.datasource.hikari.maximum-pool-size=20",
+            "--spring.jpa.show-sql=false",
+            "--spring.cloud.bus.enabled=false",
+            "--logging.level.com.jovisco=info",
+            "--cards.cache.enabled=false",
+            "--cards.throttling.enabled=false",
+            "--cards.bulkhead.enabled=false",
+            "--build.version=load-test")) {
+
+      context.getBean(CardsService.class).createCard(new CreateCardDto(mobileNumber));
+      var port = context.getEnvironment().getProperty("local.server.port", Integer.class);
+      var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/cards/" + mobileNumber))
+          .header("jovisco-banking-correlation-id", "load-test")
+          .GET()
+          .build();
+
+      try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        var client = HttpClient.newBuilder().executor(executor).build();
+        fire(client, request, WARM_UP_REQUESTS);
+
+        var start = System.nanoTime();
+        var latencies = fire(client, request, REQUESTS);
+        var elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        var errors = (int) Arrays.stream(latencies).filter(latency -> latency < 0).count();
+        var sorted = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+        return new LoadResult(
+            virtualThreads ? "virtual" : "platform",
+            REQUESTS / elapsedSeconds,
+            sorted[(int) (sorted.length * 0.50)] / 1e6,
+            sorted[(int) (sorted.length * 0.99)] / 1e6,
+            errors);
+      }
+    }
+  }
+
+  /**
+   * Sends the request the given number of times, with at most CONCURRENCY requests in flight.
+   * Returns the latency in nanos of each request, or -1 for failed requests.
+   */
+  private long[] fire(HttpClient client, HttpRequest request, int count) throws InterruptedException {
+
+    var latencies = new long[count];
+    var inFlight = new Semaphore(CONCURRENCY);
+    var completed = new AtomicInteger();
+
+    for (int i = 0; i < count; i++) {
+      inFlight.acquire();
+      var index = i;
+      var sent = System.nanoTime();
+      client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+          .whenComplete((response, e) -> {
+            var ok = e == null && response.statusCode() == 200;
+            latencies[index] = ok ? System.nanoTime() - sent : -1;
+            completed.incrementAndGet();
+            inFlight.release();
+          });
+    }
+
+    // wait for the last requests to complete
+    inFlight.acquire(CONCURRENCY);
+    inFlight.release(CONCURRENCY);
+    assertThat(completed.get()).isEqualTo(count);
+
+    return latencies;
+  }
+}
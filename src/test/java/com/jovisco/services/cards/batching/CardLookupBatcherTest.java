@@ -0,0 +1,188 @@
+package com.jovisco.services.cards.batching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.jovisco.services.cards.cache.CardsCache;
+import com.jovisco.services.cards.config.CardsProperties;
+import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.exceptions.ResourceNotFoundException;
+import com.jovisco.services.cards.repositories.CardsRepository;
+import com.jovisco.services.cards.services.CardsService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs without a test transaction, as the batches are queried on threads of their own - test data
+ * is removed after each test. The window is wide, so that all concurrent lookups fall into one batch.
+ */
+@SpringBootTest(properties = {
+    "cards.lookup.batching.enabled=true",
+    "cards.lookup.batching.window=PT0.5S",
+    "cards.lookup.batching.max-batch-size=100",
+    "cards.lookup.batching.max-concurrent-queries=1"
+})
+public class CardLookupBatcherTest {
+
+  static final int CARDS = 20;
+
+  @Autowired
+  CardsService cardsService;
+
+  @Autowired
+  CardsCache cardsCache;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  @Autowired
+  CardLookupBatcher cardLookupBatcher;
+
+  @Autowired
+  CardsRepository cardsRepository;
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  final List<String> mobileNumbers = IntStream.range(0, CARDS)
+      .mapToObj(n -> String.format("+4915%010d", n))
+      .toList();
+
+  @BeforeEach
+  void setUp() {
+    cardsService.createCards(mobileNumbers.stream().map(CreateCardDto::new).toList());
+    cardsCache.evictAll();
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("delete from cards where mobile_number like '+4915%'");
+    cardsCache.evictAll();
+  }
+
+  @Test
+  void testConcurrentLookupsOfDifferentCardsShareOneQuery() throws Exception {
+
+    var batchSizes = meterRegistry.get(CardLookupBatcher.BATCH_SIZE_METRIC).summary();
+    var batchesBefore = batchSizes.count();
+
+    var start = new CountDownLatch(1);
+    var cardDtos = new ArrayList<CardDto>();
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var futures = new ArrayList<Future<CardDto>>();
+      for (var mobileNumber : mobileNumbers) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return cardsService.fetchCard(mobileNumber);
+        }));
+      }
+      start.countDown();
+      for (var future : futures) {
+        cardDtos.add(future.get());
+      }
+    }
+
+    // each caller gets its own card, all of them resolved by a single query
+    assertThat(cardDtos).extracting(CardDto::getMobileNumber).containsExactlyElementsOf(mobileNumbers);
+    assertThat(batchSizes.count()).isEqualTo(batchesBefore + 1);
+    assertThat(batchSizes.max()).isEqualTo(CARDS);
+  }
+
+  @Test
+  void testBatchesWaitWhileAllQueriesAreInFlight() throws Exception {
+
+    var querying = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var inFlight = new AtomicInteger();
+    var maxInFlight = new AtomicInteger();
+
+    var blockingRepository = mock(CardsRepository.class, delegatesTo(cardsRepository));
+    doAnswer(invocation -> {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      querying.countDown();
+      release.await();
+      try {
+        return cardsRepository.findCardDtosByMobileNumberIn(invocation.getArgument(0));
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    }).when(blockingRepository).findCardDtosByMobileNumberIn(any());
+    ReflectionTestUtils.setField(cardLookupBatcher, "cardsRepository", blockingRepository);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var first = executor.submit(() -> cardLookupBatcher.load(mobileNumbers.get(0)));
+      querying.await();
+
+      // the second batch is not queried while the first one is still in flight
+      var second = executor.submit(() -> cardLookupBatcher.load(mobileNumbers.get(1)));
+      Thread.sleep(1000);
+      assertThat(second).isNotDone();
+      release.countDown();
+
+      assertThat(first.get()).hasValueSatisfying(cardDto -> assertThat(cardDto.getMobileNumber()).isEqualTo(mobileNumbers.get(0)));
+      assertThat(second.get()).hasValueSatisfying(cardDto -> assertThat(cardDto.getMobileNumber()).isEqualTo(mobileNumbers.get(1)));
+    } finally {
+      ReflectionTestUtils.setField(cardLookupBatcher, "cardsRepository", cardsRepository);
+    }
+
+    assertThat(maxInFlight.get()).isEqualTo(1);
+  }
+
+  @Test
+  void testLookupsBeingCollectedAreResolvedOnStop() throws Exception {
+
+    var properties = new CardsProperties();
+    properties.getLookup().getBatching().setEnabled(true);
+    properties.getLookup().getBatching().setWindow(Duration.ofSeconds(30));
+    var batcher = new CardLookupBatcher(properties, cardsRepository, transactionManager, meterRegistry);
+    batcher.start();
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var lookup = executor.submit(() -> batcher.load(mobileNumbers.get(0)));
+      // the dispatcher has taken the lookup off the queue, and waits for further lookups
+      Thread.sleep(500);
+      batcher.stop();
+
+      assertThat(lookup.get(5, TimeUnit.SECONDS))
+          .hasValueSatisfying(cardDto -> assertThat(cardDto.getMobileNumber()).isEqualTo(mobileNumbers.get(0)));
+    }
+
+    var queryPermits = (Semaphore) ReflectionTestUtils.getField(batcher, "queryPermits");
+    assertThat(queryPermits.availablePermits()).isEqualTo(properties.getLookup().getBatching().getMaxConcurrentQueries());
+  }
+
+  @Test
+  void testLookupOfUnknownCard() {
+
+    assertThatExceptionOfType(ResourceNotFoundException.class)
+        .isThrownBy(() -> cardsService.fetchCard("+999999999999"));
+  }
+}
@@ -0,0 +1,106 @@
+package com.jovisco.services.cards.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import com.jovisco.services.cards.config.CardsProperties;
+import com.jovisco.services.cards.dtos.CardDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CardsCacheTest {
+
+  final CardsCache cardsCache = new CardsCache(new CardsProperties(), new SimpleMeterRegistry());
+
+  final String mobileNumber = "+491500000001";
+
+  @Test
+  void testLoadedCardIsCached() {
+
+    cardsCache.get(mobileNumber, () -> card(1L));
+
+    assertThat(cardsCache.get(mobileNumber)).hasValueSatisfying(cardDto -> assertThat(cardDto.getVersion()).isEqualTo(1L));
+  }
+
+  @Test
+  void testCardEvictedWhileLoadingIsNotCached() throws Exception {
+
+    var loading = new CountDownLatch(1);
+    var evicted = new CountDownLatch(1);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      // the load reads the card as it was before the change, which evicts the card while the load is in flight
+      var load = executor.submit(() -> cardsCache.get(mobileNumber, () -> {
+        loading.countDown();
+        await(evicted);
+        return card(1L);
+      }));
+      await(loading);
+      cardsCache.evict(mobileNumber);
+      evicted.countDown();
+
+      // the card before is returned to the caller of the load, but not cached
+      assertThat(load.get().getVersion()).isEqualTo(1L);
+      assertThat(cardsCache.get(mobileNumber)).isEmpty();
+    }
+
+    // the next load caches the changed card
+    cardsCache.get(mobileNumber, () -> card(2L));
+    assertThat(cardsCache.get(mobileNumber)).hasValueSatisfying(cardDto -> assertThat(cardDto.getVersion()).isEqualTo(2L));
+  }
+
+  @Test
+  void testCardReadBeforeEvictionIsNotPut() {
+
+    var generation = cardsCache.generation(mobileNumber);
+    cardsCache.evictAll();
+    cardsCache.put(mobileNumber, card(1L), generation);
+
+    assertThat(cardsCache.get(mobileNumber)).isEmpty();
+  }
+
+  @Test
+  void testCardEvictedRecentlyIsNotCachedWhenReadingFromReplicas() {
+
+    var cardsProperties = new CardsProperties();
+    cardsProperties.getDatasource().setRouting(true);
+    var replicaCache = new CardsCache(cardsProperties, new SimpleMeterRegistry());
+
+    // cards never evicted are cached
+    replicaCache.get(mobileNumber, () -> card(1L));
+    assertThat(replicaCache.get(mobileNumber)).isPresent();
+
+    // the replica may still return the card before the change that evicted it
+    replicaCache.evict(mobileNumber);
+    assertThat(replicaCache.get(mobileNumber, () -> card(1L)).getVersion()).isEqualTo(1L);
+    assertThat(replicaCache.get(mobileNumber)).isEmpty();
+
+    replicaCache.evictAll();
+    replicaCache.put(mobileNumber, card(2L), replicaCache.generation(mobileNumber));
+    assertThat(replicaCache.get(mobileNumber)).isEmpty();
+  }
+
+  private CardDto card(Long version) {
+
+    return CardDto.builder()
+        .mobileNumber(mobileNumber)
+        .cardNumber("4000000000000002")
+        .cardType("Credit Card")
+        .totalLimit(10_000)
+        .version(version)
+        .build();
+  }
+
+  private static void await(CountDownLatch latch) {
+
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
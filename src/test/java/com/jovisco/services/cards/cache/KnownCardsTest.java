@@ -0,0 +1,189 @@
+package com.jovisco.services.cards.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.jovisco.services.cards.constants.CardsConstants;
+import com.jovisco.services.cards.dtos.CardLookupResultDto;
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.dtos.LookupCardsDto;
+import com.jovisco.services.cards.exceptions.CardAlreadyExistsException;
+import com.jovisco.services.cards.exceptions.ResourceNotFoundException;
+import com.jovisco.services.cards.generators.CardNumberGenerator;
+import com.jovisco.services.cards.repositories.CardsRepository;
+import com.jovisco.services.cards.services.CardsService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs without a test transaction, as the known cards are loaded from committed cards - test data
+ * is removed after each test.
+ */
+@SpringBootTest(properties = "cards.known-cards.enabled=true")
+public class KnownCardsTest {
+
+  @Autowired
+  CardsService cardsService;
+
+  @Autowired
+  CardsRepository cardsRepository;
+
+  @Autowired
+  KnownCards knownCards;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  @Autowired
+  CardNumberGenerator cardNumberGenerator;
+
+  final String mobileNumber = "+491400000001";
+
+  final String unknownMobileNumber = "+491499999999";
+
+  @BeforeEach
+  void setUp() throws Exception {
+
+    // loaded in the background after startup
+    while (!knownCards.isLoaded()) {
+      Thread.sleep(10);
+    }
+    knownCards.heardFromBus();
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("delete from cards where mobile_number like '+4914%'");
+  }
+
+  @Test
+  void testUnknownCardIsNotFoundWithoutQuery() {
+
+    assertThat(knownCards.isLoaded()).isTrue();
+    var misses = meterRegistry.get(KnownCards.MISSES_METRIC).functionCounter();
+    var missesBefore = misses.count();
+
+    var queryingRepository = mock(CardsRepository.class, delegatesTo(cardsRepository));
+    var target = AopTestUtils.getTargetObject(cardsService);
+    ReflectionTestUtils.setField(target, "cardsRepository", queryingRepository);
+    try {
+      assertThatExceptionOfType(ResourceNotFoundException.class)
+          .isThrownBy(() -> cardsService.fetchCard(unknownMobileNumber));
+      assertThatExceptionOfType(ResourceNotFoundException.class)
+          .isThrownBy(() -> cardsService.deleteCard(unknownMobileNumber));
+      assertThatExceptionOfType(ResourceNotFoundException.class)
+          .isThrownBy(() -> cardsService.chargeCard(unknownMobileNumber, 10));
+      assertThat(cardsService.fetchCardVersion(unknownMobileNumber)).isEmpty();
+      var results = cardsService.lookupCards(new LookupCardsDto(List.of(unknownMobileNumber), List.of()));
+      assertThat(results.get(unknownMobileNumber).getStatus()).isEqualTo(CardLookupResultDto.Status.NOT_FOUND);
+    } finally {
+      ReflectionTestUtils.setField(target, "cardsRepository", cardsRepository);
+    }
+
+    verifyNoInteractions(queryingRepository);
+    assertThat(misses.count()).isEqualTo(missesBefore + 5);
+  }
+
+  @Test
+  void testUnknownCardIsQueriedWhileTheBusIsSilent() {
+
+    // e.g. the broker is down - cards created by other instances meanwhile are not known
+    ReflectionTestUtils.setField(knownCards, "heardFromBus", 0L);
+
+    var queryingRepository = mock(CardsRepository.class, delegatesTo(cardsRepository));
+    var target = AopTestUtils.getTargetObject(cardsService);
+    ReflectionTestUtils.setField(target, "cardsRepository", queryingRepository);
+    try {
+      assertThatExceptionOfType(ResourceNotFoundException.class)
+          .isThrownBy(() -> cardsService.fetchCard(unknownMobileNumber));
+    } finally {
+      ReflectionTestUtils.setField(target, "cardsRepository", cardsRepository);
+    }
+
+    verify(queryingRepository).findCardDtoByMobileNumber(unknownMobileNumber);
+  }
+
+  @Test
+  void testCreatedAndUpdatedCardsAreKnown() {
+
+    cardsService.createCard(new CreateCardDto(mobileNumber));
+    var cardDto = cardsService.fetchCard(mobileNumber);
+    assertThat(knownCards.mightExistWithCardNumber(cardDto.getCardNumber())).isTrue();
+
+    // the new mobile number of a card is known right after the update
+    var newMobileNumber = "+491400000002";
+    cardDto.setMobileNumber(newMobileNumber);
+    cardsService.updateCard(cardDto);
+
+    assertThat(cardsService.fetchCard(newMobileNumber).getCardNumber()).isEqualTo(cardDto.getCardNumber());
+  }
+
+  @Test
+  void testCardsInDatabaseAreKnownAfterLoading() {
+
+    // a card created behind the service's back, e.g. by another instance, is known after the next load
+    jdbcTemplate.update("""
+        insert into cards (id, mobile_number, card_number, card_type, total_limit, amount_used,
+            available_amount, created_at, created_by)
+        values (3000000000, ?, '7000000000000001', ?, 10000, 0, 10000, ?, 'KNOWN_CARDS_TEST')""",
+        mobileNumber, CardsConstants.CREDIT_CARD, Date.valueOf(LocalDate.now()));
+
+    knownCards.loadKnownCards();
+
+    assertThat(cardsService.fetchCard(mobileNumber).getCardNumber()).isEqualTo("7000000000000001");
+    // the same scan tells the card number generator that the card number has been issued
+    assertThat(cardNumberGenerator.mightBeIssued("7000000000000001")).isTrue();
+  }
+
+  @Test
+  void testReloadsRequestedMeanwhileAreCoalesced() throws Exception {
+
+    // not looked up by other tests, so that it is unknown until reloaded
+    var reloadedMobileNumber = "+491400000003";
+    jdbcTemplate.update("""
+        insert into cards (id, mobile_number, card_number, card_type, total_limit, amount_used,
+            available_amount, created_at, created_by)
+        values (3000000001, ?, '7000000000000002', ?, 10000, 0, 10000, ?, 'KNOWN_CARDS_TEST')""",
+        reloadedMobileNumber, CardsConstants.CREDIT_CARD, Date.valueOf(LocalDate.now()));
+    var reloadsBefore = knownCards.reloads.sum();
+
+    // the requests arrive while the first reload is still scanning the cards
+    for (int i = 0; i < 10; i++) {
+      knownCards.reloadKnownCards();
+    }
+
+    while (!knownCards.mightExistWithMobileNumber(reloadedMobileNumber)) {
+      Thread.sleep(10);
+    }
+    Thread.sleep(500);
+    assertThat(knownCards.reloads.sum() - reloadsBefore).isBetween(1L, 2L);
+  }
+
+  @Test
+  void testNotFoundAndDuplicateExceptionsHaveNoStackTrace() {
+
+    assertThat(new ResourceNotFoundException("Card", "mobile number", unknownMobileNumber).getStackTrace())
+        .isEmpty();
+    assertThat(new CardAlreadyExistsException("Card already exists").getStackTrace()).isEmpty();
+  }
+}
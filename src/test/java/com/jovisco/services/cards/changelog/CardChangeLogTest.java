@@ -0,0 +1,144 @@
+package com.jovisco.services.cards.changelog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.jovisco.services.cards.audit.AuditorAwareImpl;
+import com.jovisco.services.cards.config.CardsProperties;
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.repositories.CardsRepository;
+import com.jovisco.services.cards.services.CardsService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs without a test transaction, as changes are only logged after commit - test data
+ * is removed after each test.
+ */
+@SpringBootTest
+public class CardChangeLogTest {
+
+  @Autowired
+  CardChangeLog cardChangeLog;
+
+  @Autowired
+  CardsService cardsService;
+
+  @Autowired
+  CardsRepository cardsRepository;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  final String mobileNumber = "+144456789012";
+
+  @AfterEach
+  void tearDown() {
+    cardsRepository.findByMobileNumber(mobileNumber).ifPresent(cardsRepository::delete);
+    jdbcTemplate.update("delete from card_change_log where mobile_number = ? or changed_by = 'LOG_TEST'",
+        mobileNumber);
+  }
+
+  @Test
+  void testCardChangesAreLogged() throws Exception {
+
+    cardsService.createCard(new CreateCardDto(mobileNumber));
+    var cardDto = cardsService.fetchCard(mobileNumber);
+    cardDto.setTotalLimit(20_000);
+    cardsService.updateCard(cardDto);
+    cardsService.chargeCard(mobileNumber, 500);
+
+    // changes are written in the background - possibly in more than one batch, so in any order
+    awaitChanges(3);
+
+    var changes = jdbcTemplate.queryForList("""
+        select change_type, changed_fields, old_total_limit, new_total_limit, amount
+        from card_change_log where mobile_number = ?""", mobileNumber);
+    assertThat(changes).extracting(change -> change.get("change_type"))
+        .containsExactlyInAnyOrder("CREATED", "UPDATED", "CHARGED");
+    assertThat(changes).filteredOn(change -> change.get("change_type").equals("UPDATED")).singleElement()
+        .satisfies(change -> assertThat(change)
+            .containsEntry("changed_fields", "totalLimit")
+            .containsEntry("old_total_limit", 10_000)
+            .containsEntry("new_total_limit", 20_000));
+    assertThat(changes).filteredOn(change -> change.get("change_type").equals("CHARGED")).singleElement()
+        .satisfies(change -> assertThat(change).containsEntry("amount", 500));
+  }
+
+  @Test
+  void testChangesRecordTheCaller() throws Exception {
+
+    var request = new MockHttpServletRequest();
+    request.addHeader("jovisco-banking-user-id", "jane.doe");
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    try {
+      cardsService.createCard(new CreateCardDto(mobileNumber));
+    } finally {
+      RequestContextHolder.resetRequestAttributes();
+    }
+    cardsService.chargeCard(mobileNumber, 500);
+
+    awaitChanges(2);
+
+    var changes = jdbcTemplate.queryForList(
+        "select change_type, changed_by from card_change_log where mobile_number = ?", mobileNumber);
+    assertThat(changes).filteredOn(change -> change.get("change_type").equals("CREATED")).singleElement()
+        .satisfies(change -> assertThat(change).containsEntry("changed_by", "jane.doe"));
+    // changes made outside of a request are recorded as made by the service
+    assertThat(changes).filteredOn(change -> change.get("change_type").equals("CHARGED")).singleElement()
+        .satisfies(change -> assertThat(change).containsEntry("changed_by", AuditorAwareImpl.SERVICE_AUDITOR));
+    assertThat(jdbcTemplate.queryForObject("select created_by from cards where mobile_number = ?", String.class,
+        mobileNumber)).isEqualTo("jane.doe");
+  }
+
+  private void awaitChanges(int expected) throws InterruptedException {
+
+    var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (System.nanoTime() < deadline && jdbcTemplate.queryForObject(
+        "select count(*) from card_change_log where mobile_number = ?", Integer.class, mobileNumber) < expected) {
+      Thread.sleep(20);
+    }
+  }
+
+  @Test
+  void testQueuedChangesAreWrittenOnStop() {
+
+    // a log of its own, with a queue that is full most of the time
+    var properties = new CardsProperties();
+    properties.getChangeLog().setCapacity(100);
+    properties.getChangeLog().setBatchSize(50);
+    properties.getChangeLog().setOfferTimeout(Duration.ofMillis(1));
+    var meterRegistry = new SimpleMeterRegistry();
+    var changeLog = new CardChangeLog(properties, jdbcTemplate, meterRegistry);
+
+    changeLog.start();
+    for (int i = 0; i < 5_000; i++) {
+      changeLog.record(CardChange.builder()
+          .mobileNumber("+1555" + i)
+          .type(CardChange.Type.CHARGED)
+          .amount(i)
+          .changedBy("LOG_TEST")
+          .changedAt(LocalDateTime.now())
+          .build());
+    }
+    changeLog.stop();
+
+    // every change has been written - by the writer, or by the caller when the queue was full
+    assertThat(jdbcTemplate.queryForObject(
+        "select count(*) from card_change_log where changed_by = 'LOG_TEST'", Integer.class))
+        .isEqualTo(5_000);
+    assertThat(meterRegistry.counter(CardChangeLog.WRITTEN_METRIC).count()).isEqualTo(5_000);
+    assertThat(changeLog.isRunning()).isFalse();
+  }
+}
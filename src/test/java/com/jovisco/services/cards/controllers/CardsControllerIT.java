@@ -6,10 +6,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jovisco.services.cards.dtos.CreateCardDto;
@@ -185,7 +187,7 @@ public class CardsControllerIT {
     cardsController.createCard(createDto);
 
     // check that card can be fetched
-    var response = cardsController.fetchCard(correlationId, createDto.getMobileNumber());
+    var response = cardsController.fetchCard(correlationId, createDto.getMobileNumber(), webRequest());
     assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     assertThat(response.getBody().getMobileNumber()).isEqualTo(createDto.getMobileNumber());
   }
@@ -195,7 +197,7 @@ public class CardsControllerIT {
 
     // check that an exception is thrown
     assertThatExceptionOfType(ResourceNotFoundException.class)
-        .isThrownBy(() -> cardsController.fetchCard(correlationId, "+999999999999"));
+        .isThrownBy(() -> cardsController.fetchCard(correlationId, "+999999999999", webRequest()));
   }
 
   @Transactional
@@ -208,7 +210,7 @@ public class CardsControllerIT {
     cardsController.createCard(createDto);
 
     // ... fetch it, and update fields
-    var cardDto = cardsController.fetchCard(correlationId, createDto.getMobileNumber()).getBody();
+    var cardDto = cardsController.fetchCard(correlationId, createDto.getMobileNumber(), webRequest()).getBody();
     cardDto.setTotalLimit(33333);
     cardDto.setAmountUsed(22222);
     cardDto.setAvailableAmount(11111);
@@ -232,7 +234,7 @@ public class CardsControllerIT {
     cardsController.createCard(createDto);
 
     // ... fetch it, and modify fields
-    var cardDto = cardsController.fetchCard(correlationId, createDto.getMobileNumber()).getBody();
+    var cardDto = cardsController.fetchCard(correlationId, createDto.getMobileNumber(), webRequest()).getBody();
     cardDto.setTotalLimit(33333);
     cardDto.setAmountUsed(22222);
     cardDto.setAvailableAmount(11111);
@@ -242,7 +244,7 @@ public class CardsControllerIT {
     assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
 
     // check that fields have been updated with the correct values
-    var updated = cardsController.fetchCard(correlationId, cardDto.getMobileNumber()).getBody();
+    var updated = cardsController.fetchCard(correlationId, cardDto.getMobileNumber(), webRequest()).getBody();
     assertThat(updated.getTotalLimit()).isEqualTo(cardDto.getTotalLimit());
     assertThat(updated.getAmountUsed()).isEqualTo(cardDto.getAmountUsed());
     assertThat(updated.getAvailableAmount()).isEqualTo(cardDto.getAvailableAmount());
@@ -258,7 +260,7 @@ public class CardsControllerIT {
     cardsController.createCard(createDto);
 
     // ... fetch it, and modify fields
-    var cardDto = cardsController.fetchCard(correlationId, createDto.getMobileNumber()).getBody();
+    var cardDto = cardsController.fetchCard(correlationId, createDto.getMobileNumber(), webRequest()).getBody();
     cardDto.setTotalLimit(-33333);
     cardDto.setAmountUsed(-22222);
     cardDto.setAvailableAmount(-11111);
@@ -279,7 +281,7 @@ public class CardsControllerIT {
     cardsController.createCard(createDto);
 
     // ... fetch it, and modify fields
-    var cardDto = cardsController.fetchCard(correlationId, createDto.getMobileNumber()).getBody();
+    var cardDto = cardsController.fetchCard(correlationId, createDto.getMobileNumber(), webRequest()).getBody();
     cardDto.setMobileNumber(null);
     cardDto.setTotalLimit(0);
     cardDto.setCardType(null);
@@ -288,4 +290,8 @@ public class CardsControllerIT {
         .isThrownBy(() -> cardsController.updateCard(cardDto))
         .withMessageContainingAll("mobileNumber", "totalLimit", "cardType");
   }
+
+  private ServletWebRequest webRequest() {
+    return new ServletWebRequest(new MockHttpServletRequest());
+  }
 }
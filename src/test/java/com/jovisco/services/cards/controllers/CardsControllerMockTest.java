@@ -1,23 +1,40 @@
 package com.jovisco.services.cards.controllers;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.jovisco.services.cards.constants.CardsConstants;
+import com.jovisco.services.cards.dtos.AmountDto;
 import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.dtos.CardVersionDto;
 import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.dtos.CreateCardResultDto;
+import com.jovisco.services.cards.entities.Card;
+import com.jovisco.services.cards.exceptions.CardLimitExceededException;
 import com.jovisco.services.cards.services.CardsService;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -56,6 +73,27 @@ public class CardsControllerMockTest {
 
   }
 
+  @Test
+  void testCreateCards() throws Exception {
+
+    var createDtos = List.of(new CreateCardDto(mobileNumber), new CreateCardDto("INVALID"));
+    given(cardsService.createCards(any())).willReturn(List.of(
+        new CreateCardResultDto(mobileNumber, CreateCardResultDto.Status.CREATED, null),
+        new CreateCardResultDto("INVALID", CreateCardResultDto.Status.INVALID, "Mobile number must be valid")));
+
+    mockMvc.perform(
+        post("/api/v1/" + CardsController.CARDS_BATCH_PATH)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(createDtos))
+            .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].status").value("CREATED"))
+        .andExpect(jsonPath("$[1].status").value("INVALID"));
+
+    // verify that the cards service's createCards method was invoked
+    verify(cardsService, times(1)).createCards(createDtos);
+  }
+
   @Test
   void testDeleteCard() throws Exception {
 
@@ -69,6 +107,62 @@ public class CardsControllerMockTest {
     verify(cardsService, times(1)).deleteCard(mobileNumber);
   }
 
+  @Test
+  void testExportCards() throws Exception {
+
+    willAnswer(invocation -> {
+      Consumer<CardDto> consumer = invocation.getArgument(0);
+      consumer.accept(buildCardDto(mobileNumber));
+      consumer.accept(buildCardDto("+133345678901"));
+      return null;
+    }).given(cardsService).exportCards(any());
+
+    var result = mockMvc.perform(
+        get("/api/v1/" + CardsController.CARDS_EXPORT_PATH)
+            .accept(MediaType.APPLICATION_NDJSON))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // the export gets a timeout of its own
+    assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+
+    // one card per line
+    var body = mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andReturn().getResponse().getContentAsString();
+    var lines = body.split("\n");
+    assertThat(lines).hasSize(2);
+    assertThat(objectMapper.readValue(lines[1], CardDto.class).getMobileNumber())
+        .isEqualTo("+133345678901");
+  }
+
+  @Test
+  void testExportCardsAsCbor() throws Exception {
+
+    willAnswer(invocation -> {
+      Consumer<CardDto> consumer = invocation.getArgument(0);
+      consumer.accept(buildCardDto(mobileNumber));
+      consumer.accept(buildCardDto("+133345678901"));
+      return null;
+    }).given(cardsService).exportCards(any());
+
+    var result = mockMvc.perform(
+        get("/api/v1/" + CardsController.CARDS_EXPORT_PATH)
+            .accept(CardsController.APPLICATION_CBOR_SEQ))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // one CBOR item per card
+    var body = mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(CardsController.APPLICATION_CBOR_SEQ))
+        .andReturn().getResponse().getContentAsByteArray();
+    try (var cards = objectMapper.copyWith(new CBORFactory()).readerFor(CardDto.class).<CardDto>readValues(body)) {
+      assertThat(cards.readAll()).extracting(CardDto::getMobileNumber).containsExactly(mobileNumber, "+133345678901");
+    }
+  }
+
   @Test
   void testFetchCard() throws Exception {
 
@@ -83,6 +177,73 @@ public class CardsControllerMockTest {
     verify(cardsService, times(1)).fetchCard(mobileNumber);
   }
 
+  @Test
+  void testFetchCardWithETag() throws Exception {
+
+    var cardDto = buildCardDto(mobileNumber).toBuilder().version(3L).build();
+    given(cardsService.fetchCard(any())).willReturn(cardDto);
+
+    mockMvc.perform(
+        get("/api/v1/" + CardsController.CARDS_MOBILENUMBER_PATH, mobileNumber)
+            .header("jovisco-banking-correlation-id", "***TEST***")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "W/\"1234567890123456-3\""))
+        .andExpect(header().string("Vary", "Accept"));
+  }
+
+  @Test
+  void testFetchCardAsCbor() throws Exception {
+
+    var cardDto = buildCardDto(mobileNumber);
+    given(cardsService.fetchCard(any())).willReturn(cardDto);
+
+    var body = mockMvc.perform(
+        get("/api/v1/" + CardsController.CARDS_MOBILENUMBER_PATH, mobileNumber)
+            .header("jovisco-banking-correlation-id", "***TEST***")
+            .accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    var cborMapper = objectMapper.copyWith(new CBORFactory());
+    assertThat(cborMapper.readValue(body, CardDto.class)).isEqualTo(cardDto);
+    assertThat(body.length).isLessThan(objectMapper.writeValueAsBytes(cardDto).length);
+  }
+
+  @Test
+  void testFetchCardNotModified() throws Exception {
+
+    given(cardsService.fetchCardVersion(any())).willReturn(Optional.of(new CardVersionDto("1234567890123456", 3L)));
+
+    mockMvc.perform(
+        get("/api/v1/" + CardsController.CARDS_MOBILENUMBER_PATH, mobileNumber)
+            .header("jovisco-banking-correlation-id", "***TEST***")
+            .header("If-None-Match", "W/\"1234567890123456-3\"")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("Vary", "Accept"))
+        .andExpect(content().string(""));
+
+    // the card itself is neither read nor serialized
+    verify(cardsService, never()).fetchCard(any());
+  }
+
+  @Test
+  void testFetchCardModifiedSinceETag() throws Exception {
+
+    given(cardsService.fetchCardVersion(any())).willReturn(Optional.of(new CardVersionDto("1234567890123456", 4L)));
+    given(cardsService.fetchCard(any())).willReturn(buildCardDto(mobileNumber).toBuilder().version(4L).build());
+
+    mockMvc.perform(
+        get("/api/v1/" + CardsController.CARDS_MOBILENUMBER_PATH, mobileNumber)
+            .header("jovisco-banking-correlation-id", "***TEST***")
+            .header("If-None-Match", "W/\"1234567890123456-3\"")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "W/\"1234567890123456-4\""));
+  }
+
   @Test
   void testUpdateCard() throws Exception {
 
@@ -100,6 +261,46 @@ public class CardsControllerMockTest {
     verify(cardsService, times(1)).updateCard(updateDto);
   }
 
+  @Test
+  void testChargeCard() throws Exception {
+
+    mockMvc.perform(
+        post("/api/v1/" + CardsController.CARDS_CHARGE_PATH, mobileNumber)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new AmountDto(250)))
+            .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+
+    verify(cardsService, times(1)).chargeCard(mobileNumber, 250);
+  }
+
+  @Test
+  void testChargeCardWithLimitExceededError() throws Exception {
+
+    willThrow(new CardLimitExceededException("Amount 250 exceeds the available amount"))
+        .given(cardsService).chargeCard(mobileNumber, 250);
+
+    mockMvc.perform(
+        post("/api/v1/" + CardsController.CARDS_CHARGE_PATH, mobileNumber)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new AmountDto(250)))
+            .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
+  @Test
+  void testUpdateCardWithOutdatedVersion() throws Exception {
+
+    given(cardsService.updateCard(any())).willThrow(new ObjectOptimisticLockingFailureException(Card.class, 1L));
+
+    mockMvc.perform(
+        put("/api/v1/" + CardsController.CARDS_PATH)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(buildCardDto(mobileNumber)))
+            .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(status().isConflict());
+  }
+
   private CardDto buildCardDto(String mobileNumber) {
 
     return CardDto.builder()
@@ -0,0 +1,58 @@
+package com.jovisco.services.cards.controllers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.services.CardsService;
+
+@WebMvcTest(controllers = CardsController.class, properties = {
+    "cards.throttling.enabled=true",
+    "cards.throttling.requests-per-second=0.01",
+    "cards.throttling.burst=2"
+})
+public class CardsControllerThrottlingTest {
+
+  @Autowired
+  MockMvc mockMvc;
+
+  @MockBean
+  CardsService cardsService;
+
+  final String mobileNumber = "+122234567890";
+
+  @Test
+  void testRequestsBeyondTheClientsRateAreRejected() throws Exception {
+
+    given(cardsService.fetchCard(any())).willReturn(CardDto.builder().mobileNumber(mobileNumber).build());
+
+    for (int i = 0; i < 2; i++) {
+      fetchCard("client-1").andExpect(status().isOk());
+    }
+
+    fetchCard("client-1")
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"))
+        .andExpect(jsonPath("$.errorCode").value("TOO_MANY_REQUESTS"));
+
+    // other clients are not affected
+    fetchCard("client-2").andExpect(status().isOk());
+  }
+
+  private ResultActions fetchCard(String client) throws Exception {
+    return mockMvc.perform(
+        get("/api/v1/" + CardsController.CARDS_MOBILENUMBER_PATH, mobileNumber)
+            .header("jovisco-banking-correlation-id", "***TEST***")
+            .header("jovisco-banking-client-id", client));
+  }
+}
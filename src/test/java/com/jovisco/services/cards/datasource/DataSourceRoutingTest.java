@@ -0,0 +1,73 @@
+package com.jovisco.services.cards.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.jovisco.services.cards.cache.CardsCache;
+import com.jovisco.services.cards.dtos.CardLookupResultDto;
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.dtos.LookupCardsDto;
+import com.jovisco.services.cards.services.CardsService;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs with an empty H2 database as replica, which is not replicated to - cards written to
+ * the primary are therefore not found by read-only transactions.
+ */
+@SpringBootTest(properties = {
+    "cards.datasource.routing=true",
+    "cards.datasource.replicas[0].jdbc-url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:schema.sql'",
+    "cards.datasource.replicas[0].username=sa",
+    "cards.datasource.replicas[0].maximum-pool-size=2"
+})
+public class DataSourceRoutingTest {
+
+  @Autowired
+  CardsService cardsService;
+
+  @Autowired
+  CardsCache cardsCache;
+
+  @Autowired
+  HikariDataSource primaryDataSource;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  final String mobileNumber = "+155512345678";
+
+  @AfterEach
+  void tearDown() {
+    new JdbcTemplate(primaryDataSource).update("delete from cards where mobile_number = ?", mobileNumber);
+    cardsCache.evictAll();
+  }
+
+  @Test
+  void testWritesGoToPrimaryAndReadOnlyTransactionsToReplica() {
+
+    cardsService.createCard(new CreateCardDto(mobileNumber));
+
+    var primaryCount = new JdbcTemplate(primaryDataSource)
+        .queryForObject("select count(*) from cards where mobile_number = ?", Integer.class, mobileNumber);
+    var results = cardsService.lookupCards(new LookupCardsDto(List.of(mobileNumber), List.of()));
+
+    assertThat(primaryCount).isEqualTo(1);
+    assertThat(results.get(mobileNumber).getStatus()).isEqualTo(CardLookupResultDto.Status.NOT_FOUND);
+  }
+
+  @Test
+  void testEachPoolPublishesMetrics() {
+
+    assertThat(meterRegistry.find("hikaricp.connections.max").tag("pool", "cards-primary").gauge()).isNotNull();
+    assertThat(meterRegistry.find("hikaricp.connections.max").tag("pool", "cards-replica-0").gauge()).isNotNull();
+  }
+}
@@ -0,0 +1,110 @@
+package com.jovisco.services.cards.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Routes between in-memory H2 databases, each of which knows its own name and its replica lag.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+  @Test
+  void testReadOnlyTransactionsReadFromReplica() {
+
+    var replicas = replicas("replica-0");
+    var dataSource = routingDataSource(database("primary", 0), replicas);
+
+    assertThat(read(dataSource, true)).isEqualTo("replica-0");
+    assertThat(read(dataSource, false)).isEqualTo("primary");
+    assertThat(new JdbcTemplate(dataSource).queryForObject("select name from database_info", String.class))
+        .isEqualTo("primary");
+  }
+
+  @Test
+  void testReplicasAreUsedRoundRobin() {
+
+    var replicas = replicas("replica-0", "replica-1");
+    var dataSource = routingDataSource(database("primary", 0), replicas);
+
+    var names = List.of(read(dataSource, true), read(dataSource, true), read(dataSource, true), read(dataSource, true));
+
+    assertThat(names).containsExactlyInAnyOrder("replica-0", "replica-0", "replica-1", "replica-1");
+  }
+
+  @Test
+  void testLaggingReplicasAreSkipped() {
+
+    var replicas = new LinkedHashMap<String, DataSource>();
+    replicas.put("replica-0", database("replica-0", 30));
+    replicas.put("replica-1", database("replica-1", 1));
+    var primary = database("primary", 0);
+    var routing = new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(5),
+        "select lag_seconds from database_info", "lag_seconds");
+    var dataSource = new LazyConnectionDataSourceProxy(primary);
+    dataSource.setReadOnlyDataSource(routing);
+
+    // only the replica within the maximum lag is read from ...
+    routing.checkReplicaLag();
+    assertThat(routing.getAvailableReplicas()).containsExactly("replica-1");
+    assertThat(read(dataSource, true)).isEqualTo("replica-1");
+    assertThat(read(dataSource, true)).isEqualTo("replica-1");
+
+    // ... and the primary once no replica is within the maximum lag
+    new JdbcTemplate(replicas.get("replica-1")).update("update database_info set lag_seconds = 60");
+    routing.checkReplicaLag();
+    assertThat(routing.getAvailableReplicas()).isEmpty();
+    assertThat(read(dataSource, true)).isEqualTo("primary");
+  }
+
+  private String read(DataSource dataSource, boolean readOnly) {
+
+    var transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    transactionTemplate.setReadOnly(readOnly);
+
+    return transactionTemplate.execute(status ->
+        new JdbcTemplate(dataSource).queryForObject("select name from database_info", String.class));
+  }
+
+  private DataSource routingDataSource(DataSource primary, LinkedHashMap<String, DataSource> replicas) {
+
+    // replica lag is not checked
+    var routing = new ReplicaRoutingDataSource(primary, replicas, null, null, null);
+    var dataSource = new LazyConnectionDataSourceProxy(primary);
+    dataSource.setReadOnlyDataSource(routing);
+
+    return dataSource;
+  }
+
+  private LinkedHashMap<String, DataSource> replicas(String... names) {
+
+    var replicas = new LinkedHashMap<String, DataSource>();
+    for (var name : names) {
+      replicas.put(name, database(name, 0));
+    }
+
+    return replicas;
+  }
+
+  private DataSource database(String name, int lagSeconds) {
+
+    var dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:routing-" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+    var jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("create table database_info (name varchar(20), lag_seconds int)");
+    jdbcTemplate.update("insert into database_info values (?, ?)", name, lagSeconds);
+
+    return dataSource;
+  }
+}
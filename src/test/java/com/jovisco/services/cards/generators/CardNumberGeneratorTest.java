@@ -0,0 +1,107 @@
+package com.jovisco.services.cards.generators;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.jovisco.services.cards.config.CardsProperties;
+
+public class CardNumberGeneratorTest {
+
+  static final int THREADS = 16;
+  static final int CARDS_PER_THREAD = 20_000;
+
+  @Test
+  void testGeneratedCardNumbersAreLuhnValidAndInBinRange() {
+
+    var properties = new CardsProperties();
+    properties.getCardNumber().setBinFrom(510_000);
+    properties.getCardNumber().setBinTo(510_009);
+    var generator = new CardNumberGenerator(properties);
+
+    for (int i = 0; i < 10_000; i++) {
+      var cardNumber = generator.generate();
+      assertThat(cardNumber).hasSize(16).startsWith("51000");
+      assertThat(CardNumberGenerator.isLuhnValid(cardNumber)).isTrue();
+    }
+  }
+
+  @Test
+  void testLuhnCheck() {
+
+    assertThat(CardNumberGenerator.isLuhnValid("4111111111111111")).isTrue();
+    assertThat(CardNumberGenerator.isLuhnValid("79927398713")).isTrue();
+    assertThat(CardNumberGenerator.isLuhnValid("4111111111111112")).isFalse();
+    assertThat(CardNumberGenerator.isLuhnValid("41111111111111x1")).isFalse();
+    assertThat(CardNumberGenerator.isLuhnValid(null)).isFalse();
+  }
+
+  @Test
+  void testConcurrentlyGeneratedCardNumbersAreUnique() throws Exception {
+
+    var generator = new CardNumberGenerator(new CardsProperties());
+    var cardNumbers = ConcurrentHashMap.<String>newKeySet();
+    var start = new CountDownLatch(1);
+
+    try (var executor = Executors.newFixedThreadPool(THREADS)) {
+      var futures = new ArrayList<Future<?>>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int n = 0; n < CARDS_PER_THREAD; n++) {
+            cardNumbers.add(generator.generate());
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (var future : futures) {
+        future.get();
+      }
+    }
+
+    assertThat(cardNumbers).hasSize(THREADS * CARDS_PER_THREAD);
+  }
+
+  @Test
+  void testRegisteredCardNumbersAreSkipped() {
+
+    // a single BIN with 10,000 possible card numbers, the first 2,000 of them issued before
+    var properties = new CardsProperties();
+    properties.getCardNumber().setBinFrom(400_000);
+    properties.getCardNumber().setBinTo(400_000);
+    properties.getCardNumber().setLength(11);
+    var generator = new CardNumberGenerator(properties);
+
+    var registered = new HashSet<String>();
+    for (int account = 0; account < 2_000; account++) {
+      var digits = String.format("400000%04d0", account).toCharArray();
+      digits[10] = (char) ('0' + CardNumberGenerator.checkDigit(digits, 10));
+      registered.add(new String(digits));
+    }
+    registered.forEach(generator::register);
+
+    for (int i = 0; i < 1_000; i++) {
+      assertThat(registered).doesNotContain(generator.generate());
+    }
+  }
+
+  @Test
+  void testInvalidBinRangeIsRejected() {
+
+    var properties = new CardsProperties();
+    properties.getCardNumber().setBinFrom(99_999);
+    properties.getCardNumber().setBinTo(100_000);
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> new CardNumberGenerator(properties));
+  }
+}
@@ -0,0 +1,243 @@
+package com.jovisco.services.cards.invalidation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.bus.BusBridge;
+import org.springframework.cloud.bus.BusConsumer;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jovisco.services.cards.CardsApplication;
+import com.jovisco.services.cards.cache.CardsCache;
+import com.jovisco.services.cards.cache.KnownCards;
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.exceptions.ResourceNotFoundException;
+import com.jovisco.services.cards.services.CardsService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs two instances of the cards service against the same database, connected by an in-process
+ * stand-in for the bus' broker. Events are passed through JSON on their way, like over the wire.
+ */
+public class CardInvalidationTest {
+
+  static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+  /**
+   * Delivers the events sent by one instance to the bus consumers of all instances - which skip
+   * their own events. Can be told to drop or duplicate the next events - other than heartbeats.
+   */
+  static class InProcessBroker {
+
+    final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    final List<BusConsumer> consumers = new CopyOnWriteArrayList<>();
+
+    final AtomicInteger drops = new AtomicInteger();
+
+    final AtomicInteger duplicates = new AtomicInteger();
+
+    // number of events sent per instance, whose delivery has completed
+    final Map<String, AtomicInteger> delivered = new ConcurrentHashMap<>();
+
+    InProcessBroker() {
+      objectMapper.registerSubtypes(CardsInvalidatedEvent.class);
+    }
+
+    BusBridge bridge() {
+      return this::send;
+    }
+
+    void send(RemoteApplicationEvent event) {
+
+      if (!(event instanceof CardsInvalidatedEvent invalidated)) {
+        return;
+      }
+      try {
+        if (!invalidated.isHeartbeat() && drops.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+          return;
+        }
+        var copies = !invalidated.isHeartbeat() && duplicates.getAndUpdate(n -> Math.max(0, n - 1)) > 0 ? 2 : 1;
+        var json = objectMapper.writeValueAsString(event);
+        for (int i = 0; i < copies; i++) {
+          var received = objectMapper.readValue(json, RemoteApplicationEvent.class);
+          consumers.forEach(consumer -> consumer.accept(received));
+        }
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      } finally {
+        delivered(event.getOriginService()).incrementAndGet();
+      }
+    }
+
+    AtomicInteger delivered(String origin) {
+      return delivered.computeIfAbsent(origin, key -> new AtomicInteger());
+    }
+
+    /**
+     * Waits until the events the instance is sending have been delivered - its events are sent one
+     * after the other, so once two more have been delivered, the one in progress has been, too.
+     */
+    void awaitIdle(String origin) {
+      var target = delivered(origin).get() + 2;
+      awaitTrue(() -> delivered(origin).get() >= target);
+    }
+  }
+
+  static final InProcessBroker broker = new InProcessBroker();
+
+  static ConfigurableApplicationContext instanceA;
+
+  static ConfigurableApplicationContext instanceB;
+
+  final String mobileNumber = "+491300000001";
+
+  @BeforeAll
+  static void startInstances() {
+    instanceA = startInstance("a");
+    instanceB = startInstance("b");
+  }
+
+  @AfterAll
+  static void stopInstances() {
+    broker.consumers.clear();
+    instanceB.close();
+    instanceA.close();
+  }
+
+  @AfterEach
+  void tearDown() {
+    broker.awaitIdle("cards:a");
+    broker.awaitIdle("cards:b");
+
+    // deleted behind the instances' backs, so their caches are cleared, too
+    instanceA.getBean(JdbcTemplate.class).update("delete from cards where mobile_number like '+4913%'");
+    instanceA.getBean(CardsCache.class).evictAll();
+    instanceB.getBean(CardsCache.class).evictAll();
+  }
+
+  @Test
+  void testChangesOnOneInstanceEvictCardsOnTheOther() {
+
+    var serviceA = instanceA.getBean(CardsService.class);
+    var serviceB = instanceB.getBean(CardsService.class);
+
+    // instance B knows the card created by instance A once its event has arrived, and caches it
+    serviceA.createCard(new CreateCardDto(mobileNumber));
+    awaitTrue(() -> instanceB.getBean(KnownCards.class).mightExistWithMobileNumber(mobileNumber));
+    var cardDto = serviceB.fetchCard(mobileNumber);
+
+    // the change on instance A is seen by instance B, instead of its cached card
+    cardDto.setTotalLimit(cardDto.getTotalLimit() + 1000);
+    serviceA.updateCard(cardDto);
+    awaitTrue(() -> serviceB.fetchCard(mobileNumber).getTotalLimit() == cardDto.getTotalLimit());
+
+    serviceA.deleteCard(mobileNumber);
+    awaitTrue(() -> {
+      try {
+        serviceB.fetchCard(mobileNumber);
+        return false;
+      } catch (ResourceNotFoundException e) {
+        return true;
+      }
+    });
+  }
+
+  @Test
+  void testDuplicatesAreSkippedAndGapsFlushTheCache() {
+
+    var serviceA = instanceA.getBean(CardsService.class);
+    var serviceB = instanceB.getBean(CardsService.class);
+    var registryB = instanceB.getBean(MeterRegistry.class);
+    var duplicates = registryB.get(CardInvalidationListener.EVENTS_METRIC).tag("outcome", "duplicate").counter();
+    var gaps = registryB.get(CardInvalidationListener.EVENTS_METRIC).tag("outcome", "gap").counter();
+
+    serviceA.createCard(new CreateCardDto(mobileNumber));
+    awaitTrue(() -> instanceB.getBean(KnownCards.class).mightExistWithMobileNumber(mobileNumber));
+
+    // an event delivered twice is applied once
+    var duplicatesBefore = duplicates.count();
+    broker.duplicates.set(1);
+    serviceA.chargeCard(mobileNumber, 10);
+    awaitTrue(() -> duplicates.count() == duplicatesBefore + 1);
+    assertThat(serviceB.fetchCard(mobileNumber).getAmountUsed()).isEqualTo(10);
+
+    // a lost event is noticed with the next event or heartbeat - instance B flushes its cache
+    var gapsBefore = gaps.count();
+    broker.drops.set(1);
+    serviceA.chargeCard(mobileNumber, 20);
+    awaitTrue(() -> gaps.count() > gapsBefore);
+    assertThat(serviceB.fetchCard(mobileNumber).getAmountUsed()).isEqualTo(30);
+  }
+
+  @Test
+  void testOwnEventsAreNotApplied() {
+
+    var appliedByA = instanceA.getBean(MeterRegistry.class)
+        .get(CardInvalidationListener.EVENTS_METRIC).tag("outcome", "applied").counter();
+    var appliedByB = instanceB.getBean(MeterRegistry.class)
+        .get(CardInvalidationListener.EVENTS_METRIC).tag("outcome", "applied").counter();
+    var appliedByABefore = appliedByA.count();
+    var appliedByBBefore = appliedByB.count();
+
+    // the event of instance B reaches both instances, but only instance A applies it
+    instanceB.getBean(CardsService.class).createCard(new CreateCardDto(mobileNumber));
+    awaitTrue(() -> appliedByA.count() > appliedByABefore);
+
+    assertThat(appliedByB.count()).isEqualTo(appliedByBBefore);
+  }
+
+  private static ConfigurableApplicationContext startInstance(String name) {
+
+    var context = new SpringApplicationBuilder(CardsApplication.class)
+        .profiles("dev")
+        .initializers(applicationContext -> applicationContext.getBeanFactory()
+            .registerSingleton("inProcessBusBridge", broker.bridge()))
+        .run(
+            "--spring.main.web-application-type=none",
+            "--spring.datasource.url=jdbc:h2:mem:invalidation;DB_CLOSE_ON_EXIT=FALSE",
+            "--spring.jpa.show-sql=false",
+            "--spring.cloud.bus.id=cards:" + name,
+            "--logging.level.com.jovisco=info",
+            "--cards.known-cards.enabled=true",
+            "--cards.invalidation.window=PT0.01S",
+            "--cards.invalidation.heartbeat-interval=PT0.2S",
+            "--cards.outbox.poll-interval=PT1H",
+            "--build.version=invalidation-test");
+    broker.consumers.add(context.getBean(BusConsumer.class));
+
+    return context;
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) {
+
+    var deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).as("condition met within %s", TIMEOUT).isLessThan(deadline);
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package com.jovisco.services.cards.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.jovisco.services.cards.cache.CardsCache;
+import com.jovisco.services.cards.constants.CardsConstants;
+import com.jovisco.services.cards.entities.Card;
+import com.jovisco.services.cards.exceptions.ResourceNotFoundException;
+import com.jovisco.services.cards.repositories.CardsRepository;
+import com.jovisco.services.cards.services.CardsService;
+
+@SpringBootTest
+public class CardLedgerTest {
+
+  @Autowired
+  CardsService cardsService;
+
+  @Autowired
+  CardsRepository cardsRepository;
+
+  @Autowired
+  CardsCache cardsCache;
+
+  @Autowired
+  LedgerSnapshotter ledgerSnapshotter;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  final String mobileNumber = "+122234567899";
+
+  Card testCard;
+
+  @BeforeEach
+  void setUp() {
+    cardsCache.evictAll();
+    testCard = cardsRepository.saveAndFlush(Card.builder()
+        .mobileNumber(mobileNumber)
+        .cardNumber("1234567890123499")
+        .cardType(CardsConstants.CREDIT_CARD)
+        .totalLimit(10000)
+        .amountUsed(0)
+        .availableAmount(10000)
+        .build());
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testLedgerAddsUpToTheAmountUsed() {
+
+    cardsService.chargeCard(mobileNumber, 1500);
+    cardsService.chargeCard(mobileNumber, 700);
+    cardsService.creditCard(mobileNumber, 200);
+
+    // the amount used is overwritten by an update - the ledger gets the difference
+    var cardDto = cardsService.fetchCard(mobileNumber).toBuilder().amountUsed(2500).build();
+    cardsService.updateCard(cardDto);
+
+    assertThat(entries()).containsExactly(1500L, 700L, -200L, 500L);
+    assertThat(cardsService.fetchLedgerBalance(mobileNumber))
+        .isEqualTo(cardsRepository.findByMobileNumber(mobileNumber).get().getAmountUsed())
+        .isEqualTo(2500);
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testBalanceIsReadFromSnapshotPlusLaterEntries() {
+
+    cardsService.chargeCard(mobileNumber, 1000);
+    cardsService.chargeCard(mobileNumber, 2000);
+
+    // entries not yet settled are left for a later run
+    ledgerSnapshotter.snapshot(LocalDateTime.now().minusMinutes(1));
+    assertThat(snapshot()).isNull();
+
+    ledgerSnapshotter.snapshot(LocalDateTime.now().plusMinutes(1));
+    assertThat(snapshot()).isEqualTo(3000);
+
+    // later entries are added to the snapshot, earlier ones are not summed up again
+    cardsService.creditCard(mobileNumber, 500);
+    assertThat(cardsService.fetchLedgerBalance(mobileNumber)).isEqualTo(2500);
+
+    ledgerSnapshotter.snapshot(LocalDateTime.now().plusMinutes(1));
+    assertThat(snapshot()).isEqualTo(2500);
+    assertThat(cardsService.fetchLedgerBalance(mobileNumber)).isEqualTo(2500);
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testBalanceOfCardWithoutEntries() {
+
+    assertThat(cardsService.fetchLedgerBalance(mobileNumber)).isZero();
+    assertThatExceptionOfType(ResourceNotFoundException.class)
+        .isThrownBy(() -> cardsService.fetchLedgerBalance("+999999999999"));
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testCardChargedBeforeTheLedgerGetsAnOpeningBalance() throws IOException {
+
+    // a card charged before the ledger existed - its amount used has no entries
+    jdbcTemplate.update("update cards set amount_used = 3000, available_amount = 7000 where id = ?", testCard.getId());
+
+    openingBalances();
+    assertThat(snapshot()).isEqualTo(3000);
+
+    cardsService.chargeCard(mobileNumber, 500);
+    assertThat(cardsService.fetchLedgerBalance(mobileNumber))
+        .isEqualTo(cardsRepository.findByMobileNumber(mobileNumber).get().getAmountUsed())
+        .isEqualTo(3500);
+
+    // the opening balance is taken once - the script runs again on every start
+    openingBalances();
+    assertThat(snapshot()).isEqualTo(3000);
+    assertThat(cardsService.fetchLedgerBalance(mobileNumber)).isEqualTo(3500);
+  }
+
+  // runs the opening balance statement of schema.sql only - its DDL would commit the test's transaction on H2
+  private void openingBalances() throws IOException {
+
+    var script = new ClassPathResource("schema.sql").getContentAsString(StandardCharsets.UTF_8);
+    Arrays.stream(script.split(";"))
+        .filter(statement -> statement.contains("insert into card_balance_snapshot"))
+        .forEach(jdbcTemplate::update);
+  }
+
+  private List<Long> entries() {
+    return jdbcTemplate.queryForList("select amount from card_ledger where card_id = ? order by id", Long.class,
+        testCard.getId());
+  }
+
+  private Long snapshot() {
+    return jdbcTemplate.query("select amount_used from card_balance_snapshot where card_id = ?",
+        resultSet -> resultSet.next() ? resultSet.getLong(1) : null, testCard.getId());
+  }
+}
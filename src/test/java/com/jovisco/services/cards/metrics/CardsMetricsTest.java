@@ -0,0 +1,100 @@
+package com.jovisco.services.cards.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+public class CardsMetricsTest {
+
+  @Autowired
+  WebApplicationContext wac;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  MockMvc mockMvc;
+
+  final String mobileNumber = "+199934567890";
+
+  @BeforeEach
+  void setUp() {
+
+    // requests are observed by a servlet filter, which is not applied to MockMvc by default
+    var observationFilter = wac.getBean("webMvcObservationFilter", FilterRegistrationBean.class).getFilter();
+    mockMvc = MockMvcBuilders.webAppContextSetup(wac).addFilters(observationFilter).build();
+  }
+
+  @Test
+  void testRequestsAreTimedPerEndpointAndResult() throws Exception {
+
+    mockMvc.perform(get("/api/v1/cards/{mobileNumber}", mobileNumber)
+        .header("jovisco-banking-correlation-id", "metrics-test"))
+        .andExpect(status().isNotFound());
+    mockMvc.perform(post("/api/v1/cards")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"mobileNumber\": \"INVALID\"}"))
+        .andExpect(status().isBadRequest());
+
+    assertThat(meterRegistry.find("http.server.requests")
+        .tags("uri", "/api/v1/cards/{mobileNumber}", CardsMetrics.RESULT_TAG, CardsMetrics.RESULT_NOT_FOUND)
+        .timer())
+        .isNotNull();
+    assertThat(meterRegistry.find("http.server.requests")
+        .tags("uri", "/api/v1/cards", CardsMetrics.RESULT_TAG, CardsMetrics.RESULT_VALIDATION_ERROR)
+        .timer())
+        .isNotNull();
+  }
+
+  @Test
+  void testHandledExceptionsAreCounted() throws Exception {
+
+    var counter = meterRegistry.counter(CardsMetrics.EXCEPTIONS,
+        CardsMetrics.TYPE_TAG, "ResourceNotFoundException", CardsMetrics.RESULT_TAG, CardsMetrics.RESULT_NOT_FOUND);
+    var before = counter.count();
+
+    mockMvc.perform(get("/api/v1/cards/{mobileNumber}", mobileNumber)
+        .header("jovisco-banking-correlation-id", "metrics-test"))
+        .andExpect(status().isNotFound());
+
+    assertThat(counter.count()).isEqualTo(before + 1);
+  }
+
+  @Test
+  void testRepositoryCallsAreTimed() throws Exception {
+
+    // the card is fetched with the DTO projection - other tests may have timed calls before
+    var before = repositoryCalls("findCardDtoByMobileNumber");
+
+    mockMvc.perform(get("/api/v1/cards/{mobileNumber}", mobileNumber)
+        .header("jovisco-banking-correlation-id", "metrics-test"))
+        .andExpect(status().isNotFound());
+
+    assertThat(meterRegistry.find("spring.data.repository.invocations")
+        .tags("repository", "CardsRepository", "method", "findCardDtoByMobileNumber")
+        .timer())
+        .isNotNull();
+    assertThat(repositoryCalls("findCardDtoByMobileNumber")).isEqualTo(before + 1);
+  }
+
+  private long repositoryCalls(String method) {
+
+    var timer = meterRegistry.find("spring.data.repository.invocations")
+        .tags("repository", "CardsRepository", "method", method)
+        .timer();
+    return timer == null ? 0 : timer.count();
+  }
+}
@@ -0,0 +1,203 @@
+package com.jovisco.services.cards.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.repositories.CardsRepository;
+import com.jovisco.services.cards.services.CardsService;
+
+/**
+ * Publishes to an in-memory stand-in for the broker, and runs the relay explicitly.
+ * Runs without a test transaction, as the relay only sees committed events - test data
+ * is removed after each test.
+ */
+@SpringBootTest(properties = "cards.outbox.poll-interval=1h")
+public class OutboxRelayTest {
+
+  @TestConfiguration
+  static class InMemoryPublisherConfig {
+
+    @Primary
+    @Bean
+    InMemoryCardEventPublisher inMemoryCardEventPublisher() {
+      return new InMemoryCardEventPublisher();
+    }
+  }
+
+  static class InMemoryCardEventPublisher implements CardEventPublisher {
+
+    final List<OutboxMessage> published = new CopyOnWriteArrayList<>();
+
+    volatile boolean available = true;
+
+    volatile boolean publishedInTransaction;
+
+    @Override
+    public Set<Long> publish(List<OutboxMessage> messages) {
+
+      if (!available) {
+        throw new AmqpConnectException(new java.net.ConnectException("Connection refused"));
+      }
+      publishedInTransaction |= TransactionSynchronizationManager.isActualTransactionActive();
+      published.addAll(messages);
+      return messages.stream().map(OutboxMessage::getId).collect(Collectors.toSet());
+    }
+  }
+
+  @Autowired
+  OutboxRelay outboxRelay;
+
+  @Autowired
+  InMemoryCardEventPublisher publisher;
+
+  @Autowired
+  CardsService cardsService;
+
+  @Autowired
+  CardsRepository cardsRepository;
+
+  @Autowired
+  TransactionTemplate transactionTemplate;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  final String mobileNumber = "+155567890123";
+
+  @BeforeEach
+  void setUp() {
+
+    // start from an empty outbox
+    publisher.available = true;
+    outboxRelay.relay();
+    publisher.published.clear();
+    publisher.publishedInTransaction = false;
+  }
+
+  @AfterEach
+  void tearDown() {
+    publisher.available = true;
+    cardsRepository.findByMobileNumber(mobileNumber).ifPresent(cardsRepository::delete);
+    jdbcTemplate.update("delete from card_outbox");
+  }
+
+  @Test
+  void testCardEventsArePublishedInOrder() throws Exception {
+
+    cardsService.createCard(new CreateCardDto(mobileNumber));
+    var cardDto = cardsService.fetchCard(mobileNumber);
+    cardDto.setTotalLimit(20_000);
+    cardsService.updateCard(cardDto);
+    cardsService.deleteCard(mobileNumber);
+
+    assertThat(outboxRelay.relay()).isEqualTo(3);
+
+    assertThat(publisher.published).extracting(OutboxMessage::getType)
+        .containsExactly(CardEvent.Type.CARD_CREATED, CardEvent.Type.CARD_UPDATED, CardEvent.Type.CARD_DELETED);
+    var updated = objectMapper.readTree(publisher.published.get(1).getPayload());
+    assertThat(updated.path("mobileNumber").asText()).isEqualTo(mobileNumber);
+    assertThat(updated.path("card").path("totalLimit").asInt()).isEqualTo(20_000);
+    assertThat(outboxSize()).isZero();
+  }
+
+  @Test
+  void testRolledBackChangesPublishNothing() {
+
+    transactionTemplate.executeWithoutResult(status -> {
+      cardsService.createCard(new CreateCardDto(mobileNumber));
+      status.setRollbackOnly();
+    });
+
+    assertThat(outboxSize()).isZero();
+    assertThat(outboxRelay.relay()).isZero();
+  }
+
+  @Test
+  void testCardEventsSurviveBrokerOutage() {
+
+    publisher.available = false;
+    cardsService.createCard(new CreateCardDto(mobileNumber));
+
+    // the card is created nevertheless, and its event waits in the outbox ...
+    assertThat(cardsRepository.findByMobileNumber(mobileNumber)).isPresent();
+    assertThatExceptionOfType(AmqpConnectException.class).isThrownBy(() -> outboxRelay.relay());
+    assertThat(outboxSize()).isEqualTo(1);
+
+    // ... until the broker is back
+    publisher.available = true;
+    assertThat(outboxRelay.relay()).isEqualTo(1);
+    assertThat(publisher.published).extracting(OutboxMessage::getType).containsExactly(CardEvent.Type.CARD_CREATED);
+  }
+
+  @Test
+  void testChargesAndCreditsArePublished() throws Exception {
+
+    cardsService.createCard(new CreateCardDto(mobileNumber));
+    cardsService.chargeCard(mobileNumber, 100);
+    cardsService.creditCard(mobileNumber, 40);
+
+    assertThat(outboxRelay.relay()).isEqualTo(3);
+
+    assertThat(publisher.published).extracting(OutboxMessage::getType)
+        .containsExactly(CardEvent.Type.CARD_CREATED, CardEvent.Type.CARD_CHARGED, CardEvent.Type.CARD_CREDITED);
+    // the card is not read back for the event - it carries the amount, and the card number as aggregate id
+    var cardNumber = cardsService.fetchCard(mobileNumber).getCardNumber();
+    assertThat(publisher.published).extracting(OutboxMessage::getAggregateId).containsOnly(cardNumber);
+    var credited = objectMapper.readTree(publisher.published.get(2).getPayload());
+    assertThat(credited.path("mobileNumber").asText()).isEqualTo(mobileNumber);
+    assertThat(credited.path("amount").asInt()).isEqualTo(40);
+    assertThat(credited.path("card").isNull()).isTrue();
+  }
+
+  @Test
+  void testOneInstanceRelaysAtATime() {
+
+    cardsService.createCard(new CreateCardDto(mobileNumber));
+
+    // another instance holds the relay lease - this one skips its run, instead of publishing the same events
+    jdbcTemplate.update("""
+        update card_outbox_relay set leased_by = 'other', leased_until = timestampadd(second, 60, current_timestamp)
+        where id = 1""");
+    try {
+      assertThat(outboxRelay.relay()).isZero();
+      assertThat(outboxSize()).isEqualTo(1);
+
+      // the lease of an instance gone away expires
+      jdbcTemplate.update("update card_outbox_relay set leased_until = timestampadd(second, -1, current_timestamp)");
+      assertThat(outboxRelay.relay()).isEqualTo(1);
+    } finally {
+      jdbcTemplate.update("update card_outbox_relay set leased_by = null, leased_until = null");
+    }
+
+    // the lease is released after the run, and no connection is held while the broker confirms
+    assertThat(jdbcTemplate.queryForObject("select leased_by from card_outbox_relay", String.class)).isNull();
+    assertThat(publisher.publishedInTransaction).isFalse();
+  }
+
+  private int outboxSize() {
+    return jdbcTemplate.queryForObject("select count(*) from card_outbox", Integer.class);
+  }
+}
@@ -0,0 +1,105 @@
+package com.jovisco.services.cards.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+
+import com.jovisco.services.cards.constants.CardsConstants;
+
+import jakarta.transaction.Transactional;
+
+@SpringBootTest
+public class CardsRepositoryVolumeTest {
+
+  // seeding the large volume takes a while - tests tagged with it are left to: mvn test -Pvolume-tests
+  public static final String VOLUME_TAG = "volume";
+
+  static final int LARGE_VOLUME = 100_000;
+
+  // keep clear of the ids handed out by the cards sequence
+  static final long SEED_ID_OFFSET = 1_000_000_000L;
+
+  @Autowired
+  CardsRepository cardsRepository;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Transactional
+  @Rollback
+  @Test
+  void testLookupsUseUniqueIndexes() {
+
+    var mobileNumberPlan = jdbcTemplate.queryForObject(
+        "explain select * from cards where mobile_number = '+491710000000001'", String.class);
+    var cardNumberPlan = jdbcTemplate.queryForObject(
+        "explain select * from cards where card_number = '5000000000000001'", String.class);
+
+    assertThat(mobileNumberPlan).containsIgnoringCase("uk_cards_mobile_number");
+    assertThat(cardNumberPlan).containsIgnoringCase("uk_cards_card_number");
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testListingsSeekThroughIndexes() {
+
+    var pagePlan = jdbcTemplate.queryForObject(
+        "explain select * from cards where id > 4711 order by id limit 100", String.class);
+    var cardTypePagePlan = jdbcTemplate.queryForObject(
+        "explain select * from cards where card_type = 'Credit Card' and id > 4711 order by id limit 100",
+        String.class);
+
+    assertThat(pagePlan).containsIgnoringCase("primary_key");
+    assertThat(cardTypePagePlan).containsIgnoringCase("idx_cards_card_type_id");
+  }
+
+  @Tag(VOLUME_TAG)
+  @Transactional
+  @Rollback
+  @Test
+  void testLookupsUseUniqueIndexesWhenTableGrows() {
+
+    seedCards(0, LARGE_VOLUME);
+    testLookupsUseUniqueIndexes();
+
+    var n = ThreadLocalRandom.current().nextInt(LARGE_VOLUME);
+    assertThat(cardsRepository.findByMobileNumber(mobileNumber(n))).isPresent();
+    assertThat(cardsRepository.findByCardNumber(cardNumber(n))).isPresent();
+  }
+
+  private void seedCards(int from, int to) {
+
+    var createdAt = Date.valueOf(LocalDate.now());
+    var batch = new ArrayList<Object[]>();
+    for (int n = from; n < to; n++) {
+      batch.add(new Object[] { SEED_ID_OFFSET + n, mobileNumber(n), cardNumber(n), CardsConstants.CREDIT_CARD,
+          createdAt });
+      if (batch.size() == 1_000 || n == to - 1) {
+        jdbcTemplate.batchUpdate("""
+            insert into cards (id, mobile_number, card_number, card_type, total_limit, amount_used,
+                available_amount, created_at, created_by)
+            values (?, ?, ?, ?, 10000, 0, 10000, ?, 'VOLUME_TEST')""", batch);
+        batch.clear();
+      }
+    }
+  }
+
+  private String mobileNumber(int n) {
+    return String.format("+4917%010d", n);
+  }
+
+  private String cardNumber(int n) {
+    return String.format("5%015d", n);
+  }
+}
@@ -0,0 +1,187 @@
+package com.jovisco.services.cards.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.jovisco.services.cards.cache.CardsCache;
+import com.jovisco.services.cards.constants.CardsConstants;
+import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.exceptions.CardAlreadyExistsException;
+import com.jovisco.services.cards.exceptions.CardLimitExceededException;
+import com.jovisco.services.cards.repositories.CardsRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs without a test transaction, as concurrent requests must commit to
+ * see each other - test data is removed after each test.
+ */
+@SpringBootTest
+public class CardsServiceConcurrencyTest {
+
+  static final int THREADS = 16;
+  static final int CHARGES_PER_THREAD = 100;
+
+  @Autowired
+  CardsService cardsService;
+
+  @Autowired
+  CardsRepository cardsRepository;
+
+  @Autowired
+  CardsCache cardsCache;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  final String mobileNumber = "+133345678901";
+
+  @AfterEach
+  void tearDown() {
+    cardsRepository.findByMobileNumber(mobileNumber).ifPresent(cardsRepository::delete);
+  }
+
+  @Test
+  void testConcurrentCreateCardCreatesExactlyOneCard() throws Exception {
+
+    var created = new AtomicInteger();
+    var rejected = new AtomicInteger();
+    var start = new CountDownLatch(1);
+
+    // let all threads try to create a card for the same mobile number at the same time
+    try (var executor = Executors.newFixedThreadPool(THREADS)) {
+      var futures = new ArrayList<Future<?>>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          try {
+            cardsService.createCard(new CreateCardDto(mobileNumber));
+            created.incrementAndGet();
+          } catch (CardAlreadyExistsException e) {
+            rejected.incrementAndGet();
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (var future : futures) {
+        future.get();
+      }
+    }
+
+    assertThat(created.get()).isEqualTo(1);
+    assertThat(rejected.get()).isEqualTo(THREADS - 1);
+    assertThat(jdbcTemplate.queryForObject(
+        "select count(*) from cards where mobile_number = ?", Integer.class, mobileNumber))
+        .isEqualTo(1);
+  }
+
+  @Test
+  void testConcurrentChargesAreNeitherLostNorExceedTheLimit() throws Exception {
+
+    cardsService.createCard(new CreateCardDto(mobileNumber));
+
+    // charge more than the limit of the new card in total, from many threads at the same time
+    var amount = 10;
+    var charged = new AtomicInteger();
+    var rejected = new AtomicInteger();
+    var start = new CountDownLatch(1);
+
+    try (var executor = Executors.newFixedThreadPool(THREADS)) {
+      var futures = new ArrayList<Future<?>>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int n = 0; n < CHARGES_PER_THREAD; n++) {
+            try {
+              cardsService.chargeCard(mobileNumber, amount);
+              charged.incrementAndGet();
+            } catch (CardLimitExceededException e) {
+              rejected.incrementAndGet();
+            }
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (var future : futures) {
+        future.get();
+      }
+    }
+
+    // every successful charge is reflected, and the limit is used up exactly
+    var card = cardsRepository.findByMobileNumber(mobileNumber).get();
+    assertThat(charged.get()).isEqualTo(CardsConstants.NEW_CARD_LIMIT / amount);
+    assertThat(rejected.get()).isEqualTo(THREADS * CHARGES_PER_THREAD - charged.get());
+    assertThat(card.getAmountUsed()).isEqualTo(charged.get() * amount);
+    assertThat(card.getAvailableAmount()).isZero();
+  }
+
+  @Test
+  void testConcurrentFetchesOfACardShareOneQuery() throws Exception {
+
+    cardsService.createCard(new CreateCardDto(mobileNumber));
+    cardsCache.evictAll();
+
+    // count the queries, and hold the query until all other threads are waiting for its result
+    var coalesced = meterRegistry.get(CardsCache.COALESCED_METRIC).functionCounter();
+    var coalescedBefore = coalesced.count();
+    var countingRepository = mock(CardsRepository.class, delegatesTo(cardsRepository));
+    willAnswer(invocation -> {
+      var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (coalesced.count() < coalescedBefore + THREADS - 1 && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+      return cardsRepository.findCardDtoByMobileNumber(mobileNumber);
+    }).given(countingRepository).findCardDtoByMobileNumber(mobileNumber);
+
+    var start = new CountDownLatch(1);
+    var cardDtos = new ArrayList<CardDto>();
+    var target = AopTestUtils.getTargetObject(cardsService);
+    ReflectionTestUtils.setField(target, "cardsRepository", countingRepository);
+    try (var executor = Executors.newFixedThreadPool(THREADS)) {
+      var futures = new ArrayList<Future<CardDto>>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return cardsService.fetchCard(mobileNumber);
+        }));
+      }
+      start.countDown();
+      for (var future : futures) {
+        cardDtos.add(future.get());
+      }
+    } finally {
+      ReflectionTestUtils.setField(target, "cardsRepository", cardsRepository);
+    }
+
+    // one query, whose result is shared by all threads - each getting a copy of its own
+    verify(countingRepository, times(1)).findCardDtoByMobileNumber(mobileNumber);
+    assertThat(coalesced.count()).isEqualTo(coalescedBefore + THREADS - 1);
+    assertThat(cardDtos).hasSize(THREADS).allMatch(cardDtos.get(0)::equals);
+    assertThat(cardDtos.get(0)).isNotSameAs(cardDtos.get(1));
+  }
+}
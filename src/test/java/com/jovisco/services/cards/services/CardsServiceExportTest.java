@@ -0,0 +1,89 @@
+package com.jovisco.services.cards.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+
+import com.jovisco.services.cards.constants.CardsConstants;
+import com.jovisco.services.cards.dtos.CardDto;
+import com.jovisco.services.cards.repositories.CardsRepositoryVolumeTest;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+@Tag(CardsRepositoryVolumeTest.VOLUME_TAG)
+@SpringBootTest
+public class CardsServiceExportTest {
+
+  static final int VOLUME = 100_000;
+
+  // keep clear of the ids handed out by the cards sequence
+  static final long SEED_ID_OFFSET = 2_000_000_000L;
+
+  @Autowired
+  CardsService cardsService;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  EntityManager entityManager;
+
+  @Transactional
+  @Rollback
+  @Test
+  void testExportCardsKeepsMemoryConstant() {
+
+    seedCards(VOLUME);
+    var expected = jdbcTemplate.queryForObject("select count(*) from cards", Integer.class);
+
+    var exported = new AtomicInteger();
+    var maxManagedEntities = new AtomicInteger();
+    var previous = new AtomicReference<CardDto>();
+    var session = entityManager.unwrap(Session.class);
+
+    cardsService.exportCards(cardDto -> {
+      exported.incrementAndGet();
+      maxManagedEntities.accumulateAndGet(session.getStatistics().getEntityCount(), Math::max);
+      previous.set(cardDto);
+    });
+
+    // all cards are exported, while at most the current card is held by the persistence context
+    assertThat(exported.get()).isEqualTo(expected);
+    assertThat(maxManagedEntities.get()).isLessThanOrEqualTo(1);
+    assertThat(previous.get().getMobileNumber()).isEqualTo(mobileNumber(VOLUME - 1));
+  }
+
+  private void seedCards(int volume) {
+
+    var createdAt = Date.valueOf(LocalDate.now());
+    var batch = new ArrayList<Object[]>();
+    for (int n = 0; n < volume; n++) {
+      batch.add(new Object[] { SEED_ID_OFFSET + n, mobileNumber(n), String.format("6%015d", n),
+          CardsConstants.CREDIT_CARD, createdAt });
+      if (batch.size() == 1_000 || n == volume - 1) {
+        jdbcTemplate.batchUpdate("""
+            insert into cards (id, mobile_number, card_number, card_type, total_limit, amount_used,
+                available_amount, created_at, created_by)
+            values (?, ?, ?, ?, 10000, 0, 10000, ?, 'EXPORT_TEST')""", batch);
+        batch.clear();
+      }
+    }
+  }
+
+  private String mobileNumber(int n) {
+    return String.format("+4916%010d", n);
+  }
+}
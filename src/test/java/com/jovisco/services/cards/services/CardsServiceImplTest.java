@@ -5,17 +5,29 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.test.annotation.Rollback;
 
+import com.jovisco.services.cards.cache.CardsCache;
 import com.jovisco.services.cards.constants.CardsConstants;
+import com.jovisco.services.cards.dtos.CardLookupResultDto;
 import com.jovisco.services.cards.dtos.CreateCardDto;
+import com.jovisco.services.cards.dtos.CreateCardResultDto;
+import com.jovisco.services.cards.dtos.LookupCardsDto;
 import com.jovisco.services.cards.entities.Card;
+import com.jovisco.services.cards.exceptions.BatchSizeExceededException;
 import com.jovisco.services.cards.exceptions.CardAlreadyExistsException;
+import com.jovisco.services.cards.exceptions.CardLimitExceededException;
 import com.jovisco.services.cards.exceptions.ResourceNotFoundException;
+import com.jovisco.services.cards.generators.CardNumberGenerator;
 import com.jovisco.services.cards.mappers.CardMapper;
 import com.jovisco.services.cards.repositories.CardsRepository;
 
@@ -30,10 +42,15 @@ public class CardsServiceImplTest {
   @Autowired
   CardsRepository cardsRepository;
 
+  @Autowired
+  CardsCache cardsCache;
+
   Card testCard;
 
   @BeforeEach
   void setUp() {
+    // rolled back test data must not survive in the cache
+    cardsCache.evictAll();
     testCard = cardsRepository.save(buildCard());
   }
 
@@ -46,8 +63,10 @@ public class CardsServiceImplTest {
     var createDto = new CreateCardDto("+233345678901");
     cardsService.createCard(createDto);
 
-    // check if card has been created
-    assertTrue(cardsRepository.findByMobileNumber(createDto.getMobileNumber()).isPresent());
+    // check if card has been created - with a valid card number
+    var card = cardsRepository.findByMobileNumber(createDto.getMobileNumber());
+    assertTrue(card.isPresent());
+    assertTrue(CardNumberGenerator.isLuhnValid(card.get().getCardNumber()));
   }
 
   @Transactional
@@ -64,6 +83,33 @@ public class CardsServiceImplTest {
 
   }
 
+  @Transactional
+  @Rollback
+  @Test
+  void testCreateCards() {
+
+    var results = cardsService.createCards(Arrays.asList(
+        new CreateCardDto("+233345678901"),
+        new CreateCardDto(testCard.getMobileNumber()),
+        new CreateCardDto("INVALID"),
+        new CreateCardDto("+233345678901"),
+        null));
+
+    // results are reported in request order
+    assertThat(results)
+        .extracting(CreateCardResultDto::getStatus)
+        .containsExactly(
+            CreateCardResultDto.Status.CREATED,
+            CreateCardResultDto.Status.ALREADY_EXISTS,
+            CreateCardResultDto.Status.INVALID,
+            CreateCardResultDto.Status.ALREADY_EXISTS,
+            CreateCardResultDto.Status.INVALID);
+    assertThat(results.get(2).getMessage()).isEqualTo("Mobile number must be valid");
+
+    // check if only the new card has been created
+    assertTrue(cardsRepository.findByMobileNumber("+233345678901").isPresent());
+  }
+
   @Transactional
   @Rollback
   @Test
@@ -100,6 +146,26 @@ public class CardsServiceImplTest {
     assertThat(cardDto.getMobileNumber()).isEqualTo(testCard.getMobileNumber());
   }
 
+  @Transactional
+  @Rollback
+  @Test
+  void testFetchCardIsCached() {
+
+    var cardDto = cardsService.fetchCard(testCard.getMobileNumber());
+
+    // change card behind the service's back - the cached card is still served
+    testCard.setTotalLimit(33333);
+    cardsRepository.saveAndFlush(testCard);
+    assertThat(cardsService.fetchCard(testCard.getMobileNumber()).getTotalLimit())
+        .isEqualTo(cardDto.getTotalLimit());
+
+    // an update through the service (of the current version) evicts the cached card
+    cardDto.setTotalLimit(44444);
+    cardDto.setVersion(testCard.getVersion());
+    cardsService.updateCard(cardDto);
+    assertThat(cardsService.fetchCard(testCard.getMobileNumber()).getTotalLimit()).isEqualTo(44444);
+  }
+
   @Transactional
   @Rollback
   @Test
@@ -134,6 +200,62 @@ public class CardsServiceImplTest {
         card.getAvailableAmount() == cardDto.getAvailableAmount());
   }
 
+  @Transactional
+  @Rollback
+  @Test
+  void testUpdateCardWithOutdatedVersion() {
+
+    // read the card, and let it be changed by someone else
+    var cardDto = CardMapper.mapToCardDto(testCard);
+    cardsService.chargeCard(testCard.getMobileNumber(), 100);
+
+    // an update of the card as read is rejected
+    cardDto.setTotalLimit(33333);
+    assertThatExceptionOfType(OptimisticLockingFailureException.class)
+        .isThrownBy(() -> cardsService.updateCard(cardDto));
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testUpdateCardWithLimitBelowAmountUsed() {
+
+    var cardDto = CardMapper.mapToCardDto(testCard);
+    cardDto.setTotalLimit(testCard.getAmountUsed() - 1);
+
+    assertThatExceptionOfType(CardLimitExceededException.class)
+        .isThrownBy(() -> cardsService.updateCard(cardDto));
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testChargeAndCreditCard() {
+
+    cardsService.chargeCard(testCard.getMobileNumber(), 1500);
+    cardsService.creditCard(testCard.getMobileNumber(), 500);
+
+    // amounts are updated, and the version is incremented with each change
+    var card = cardsRepository.findByMobileNumber(testCard.getMobileNumber()).get();
+    assertThat(card.getAmountUsed()).isEqualTo(5000);
+    assertThat(card.getAvailableAmount()).isEqualTo(5000);
+    assertThat(card.getVersion()).isEqualTo(testCard.getVersion() + 2);
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testChargeCardWithLimitExceededError() {
+
+    // only 6000 are available on the test card
+    assertThatExceptionOfType(CardLimitExceededException.class)
+        .isThrownBy(() -> cardsService.chargeCard(testCard.getMobileNumber(), 6001));
+    assertThatExceptionOfType(CardLimitExceededException.class)
+        .isThrownBy(() -> cardsService.creditCard(testCard.getMobileNumber(), 4001));
+    assertThatExceptionOfType(ResourceNotFoundException.class)
+        .isThrownBy(() -> cardsService.chargeCard("+999999999999", 1));
+  }
+
   @Transactional
   @Rollback
   @Test
@@ -148,6 +270,71 @@ public class CardsServiceImplTest {
         .isThrownBy(() -> cardsService.updateCard(cardDto));
   }
 
+  @Transactional
+  @Rollback
+  @Test
+  void testListCardsPageByPage() {
+
+    // cards of their own type, with a utilisation of 0, 25, 50, 75 and 100 percent
+    var cardType = "Test Card";
+    for (int n = 0; n <= 4; n++) {
+      cardsRepository.save(buildCard().toBuilder()
+          .mobileNumber("+15550000000" + n)
+          .cardNumber("555000000000000" + n)
+          .cardType(cardType)
+          .amountUsed(n * 2500)
+          .availableAmount(10000 - n * 2500)
+          .build());
+    }
+
+    var firstPage = cardsService.listCards(cardType, 0.2, 0.8, 0, 2);
+    assertThat(firstPage.getCards()).extracting("amountUsed").containsExactly(2500, 5000);
+    assertThat(firstPage.getNextAfterId()).isNotNull();
+
+    var lastPage = cardsService.listCards(cardType, 0.2, 0.8, firstPage.getNextAfterId(), 2);
+    assertThat(lastPage.getCards()).extracting("amountUsed").containsExactly(7500);
+    assertThat(lastPage.getNextAfterId()).isNull();
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testLookupCards() {
+
+    // one card cached, one read from the database, and one by card number
+    cardsService.createCard(new CreateCardDto("+233345678901"));
+    var cachedCard = cardsService.fetchCard("+233345678901");
+    var missingMobileNumber = "+122234567899";
+    var missingCardNumber = "4999999999999999";
+
+    var results = cardsService.lookupCards(new LookupCardsDto(
+        List.of(missingMobileNumber, testCard.getMobileNumber(), cachedCard.getMobileNumber()),
+        List.of(testCard.getCardNumber(), missingCardNumber)));
+
+    // results in the order of the request, with explicit not found entries
+    assertThat(results).containsOnlyKeys(missingMobileNumber, testCard.getMobileNumber(),
+        cachedCard.getMobileNumber(), testCard.getCardNumber(), missingCardNumber);
+    assertThat(results.keySet()).first().isEqualTo(missingMobileNumber);
+    assertThat(results.get(missingMobileNumber).getStatus()).isEqualTo(CardLookupResultDto.Status.NOT_FOUND);
+    assertThat(results.get(missingMobileNumber).getCard()).isNull();
+    assertThat(results.get(testCard.getMobileNumber()).getCard()).isEqualTo(CardMapper.mapToCardDto(testCard));
+    assertThat(results.get(cachedCard.getMobileNumber()).getCard()).isEqualTo(cachedCard);
+    assertThat(results.get(testCard.getCardNumber()).getStatus()).isEqualTo(CardLookupResultDto.Status.FOUND);
+    assertThat(results.get(missingCardNumber).getStatus()).isEqualTo(CardLookupResultDto.Status.NOT_FOUND);
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testLookupCardsWithMaxSizeExceeded() {
+
+    var mobileNumbers = Collections.nCopies(300, testCard.getMobileNumber());
+    var cardNumbers = Collections.nCopies(201, testCard.getCardNumber());
+
+    assertThatExceptionOfType(BatchSizeExceededException.class)
+        .isThrownBy(() -> cardsService.lookupCards(new LookupCardsDto(mobileNumbers, cardNumbers)));
+  }
+
   private Card buildCard() {
     return Card.builder()
         .mobileNumber("+122234567890")
@@ -0,0 +1,112 @@
+package com.jovisco.services.cards.throttling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.persistence.EntityManagerFactory;
+
+public class BulkheadTest {
+
+  @Test
+  void testCallsBeyondTheLimitAreQueuedThenRejected() throws Exception {
+
+    var bulkhead = new Bulkhead("write", 1, 1, Duration.ofSeconds(5), null);
+    assertThat(bulkhead.tryEnter()).isTrue();
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      // the second call waits in the queue ...
+      var queued = executor.submit(bulkhead::tryEnter);
+      while (bulkhead.getQueueDepth() == 0) {
+        Thread.onSpinWait();
+      }
+
+      // ... the third one finds the queue full
+      assertThat(bulkhead.tryEnter()).isFalse();
+      assertThat(bulkhead.getRejections()).isEqualTo(1);
+
+      // the queued call is served once the first one is finished
+      bulkhead.exit();
+      assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+      assertThat(bulkhead.getActiveCalls()).isEqualTo(1);
+      assertThat(bulkhead.getQueueDepth()).isZero();
+    }
+  }
+
+  @Test
+  void testQueuedCallsAreRejectedAfterMaxWait() throws Exception {
+
+    var bulkhead = new Bulkhead("write", 1, 10, Duration.ofMillis(20), null);
+    assertThat(bulkhead.tryEnter()).isTrue();
+
+    assertThat(bulkhead.tryEnter()).isFalse();
+    assertThat(bulkhead.getRejections()).isEqualTo(1);
+    assertThat(bulkhead.getQueueDepth()).isZero();
+  }
+
+  @Test
+  void testReadsAreNotStarvedByWrites() throws Exception {
+
+    var reads = new Bulkhead("read", 10, 10, Duration.ofMillis(20), null);
+    var writes = new Bulkhead("write", 2, 2, Duration.ofSeconds(5), null);
+
+    // a storm of writes blocks all permits and queue slots of the write bulkhead ...
+    var release = new CountDownLatch(1);
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < 4; i++) {
+        executor.submit(() -> {
+          if (writes.tryEnter()) {
+            release.await();
+            writes.exit();
+          }
+          return null;
+        });
+      }
+      while (writes.getActiveCalls() < 2 || writes.getQueueDepth() < 2) {
+        Thread.onSpinWait();
+      }
+
+      // ... while reads are still served right away
+      for (int i = 0; i < 10; i++) {
+        assertThat(reads.tryEnter()).isTrue();
+      }
+      assertThat(writes.tryEnter()).isFalse();
+
+      release.countDown();
+    }
+  }
+
+  @Test
+  void testTransactionsTimeOutAsConfiguredForTheBulkheadOfTheRequest() {
+
+    var transactionManager = new BulkheadTransactionManager(mock(EntityManagerFactory.class));
+    var definition = new DefaultTransactionDefinition();
+
+    // no request - no timeout
+    assertThat(transactionManager.determineTimeout(definition)).isEqualTo(DefaultTransactionDefinition.TIMEOUT_DEFAULT);
+
+    var request = new MockHttpServletRequest();
+    request.setAttribute(BulkheadInterceptor.BULKHEAD_ATTRIBUTE,
+        new Bulkhead("read", 1, 1, Duration.ofMillis(20), Duration.ofMillis(1500)));
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    try {
+      assertThat(transactionManager.determineTimeout(definition)).isEqualTo(2);
+
+      // a timeout of the transaction's own takes precedence
+      definition.setTimeout(10);
+      assertThat(transactionManager.determineTimeout(definition)).isEqualTo(10);
+    } finally {
+      RequestContextHolder.resetRequestAttributes();
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package com.jovisco.services.cards.throttling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class ClientRateLimiterTest {
+
+  final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+  @Test
+  void testBurstThenRefill() {
+
+    var rateLimiter = new ClientRateLimiter(10, 5, 1_000, clock::get);
+
+    // a full bucket allows the burst at once ...
+    for (int i = 0; i < 5; i++) {
+      assertThat(rateLimiter.tryAcquire("client")).isZero();
+    }
+
+    // ... then the client has to wait for the next token
+    var wait = rateLimiter.tryAcquire("client");
+    assertThat(wait).isPositive().isLessThanOrEqualTo(Duration.ofMillis(100));
+
+    clock.addAndGet(wait.toNanos());
+    assertThat(rateLimiter.tryAcquire("client")).isZero();
+    assertThat(rateLimiter.tryAcquire("client")).isPositive();
+  }
+
+  @Test
+  void testClientsAreLimitedIndependently() {
+
+    var rateLimiter = new ClientRateLimiter(1, 1, 1_000, clock::get);
+
+    assertThat(rateLimiter.tryAcquire("client-1")).isZero();
+    assertThat(rateLimiter.tryAcquire("client-1")).isPositive();
+    assertThat(rateLimiter.tryAcquire("client-2")).isZero();
+  }
+
+  @Test
+  void testConcurrentRequestsGetNoMoreThanTheBurst() throws Exception {
+
+    var rateLimiter = new ClientRateLimiter(1, 100, 1_000, clock::get);
+
+    // the clock stands still - exactly the burst is allowed, however many threads compete
+    var tasks = new ArrayList<Callable<Integer>>();
+    for (int t = 0; t < 8; t++) {
+      tasks.add(() -> {
+        var allowed = 0;
+        for (int i = 0; i < 1_000; i++) {
+          if (rateLimiter.tryAcquire("client").isZero()) {
+            allowed++;
+          }
+        }
+        return allowed;
+      });
+    }
+
+    var allowed = 0;
+    try (var executor = Executors.newFixedThreadPool(8)) {
+      for (var future : executor.invokeAll(tasks)) {
+        allowed += future.get();
+      }
+    }
+
+    assertThat(allowed).isEqualTo(100);
+  }
+}
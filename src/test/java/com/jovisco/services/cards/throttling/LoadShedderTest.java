@@ -0,0 +1,29 @@
+package com.jovisco.services.cards.throttling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class LoadShedderTest {
+
+  @Test
+  void testRejectsBeyondThresholds() {
+
+    var pendingConnections = new AtomicInteger();
+    var loadShedder = new LoadShedder(2, 3, pendingConnections::get);
+
+    assertThat(loadShedder.tryEnter()).isTrue();
+    assertThat(loadShedder.tryEnter()).isTrue();
+    assertThat(loadShedder.tryEnter()).isFalse();
+    assertThat(loadShedder.getInFlight()).isEqualTo(2);
+
+    loadShedder.exit();
+    pendingConnections.set(4);
+    assertThat(loadShedder.tryEnter()).isFalse();
+
+    pendingConnections.set(3);
+    assertThat(loadShedder.tryEnter()).isTrue();
+  }
+}
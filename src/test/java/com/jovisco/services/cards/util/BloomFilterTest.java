@@ -0,0 +1,42 @@
+package com.jovisco.services.cards.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTest {
+
+  static final int INSERTIONS = 100_000;
+
+  @Test
+  void testNoFalseNegativesAndFewFalsePositives() {
+
+    var filter = new BloomFilter(INSERTIONS, 0.01);
+    for (int i = 0; i < INSERTIONS; i++) {
+      filter.put("4000" + i);
+    }
+
+    // every value put is reported ...
+    for (int i = 0; i < INSERTIONS; i++) {
+      assertThat(filter.mightContain("4000" + i)).isTrue();
+      assertThat(filter.put("4000" + i)).isFalse();
+    }
+
+    // ... and roughly the configured share of values not put
+    var falsePositives = 0;
+    for (int i = 0; i < INSERTIONS; i++) {
+      if (filter.mightContain("5000" + i)) {
+        falsePositives++;
+      }
+    }
+    assertThat(falsePositives).isLessThan(INSERTIONS * 2 / 100);
+  }
+
+  @Test
+  void testInvalidSizesAreRejected() {
+
+    assertThatIllegalArgumentException().isThrownBy(() -> new BloomFilter(0, 0.01));
+    assertThatIllegalArgumentException().isThrownBy(() -> new BloomFilter(1_000, 1.0));
+  }
+}
@@ -0,0 +1,116 @@
+package com.jovisco.services.cards.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+public class SingleFlightTest {
+
+  static final int CALLERS = 32;
+
+  @Test
+  void testConcurrentCallersShareOneLoad() throws Exception {
+
+    var singleFlight = new SingleFlight<String, String>(Duration.ofSeconds(5));
+    var loaderCalls = new AtomicInteger();
+    var release = new CountDownLatch(1);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var futures = new ArrayList<Future<String>>();
+      for (int i = 0; i < CALLERS; i++) {
+        futures.add(executor.submit(() -> singleFlight.load("key", () -> {
+          loaderCalls.incrementAndGet();
+          await(release);
+          return "value";
+        })));
+      }
+
+      // complete the load once all other callers are waiting for it
+      while (singleFlight.getCoalesced() < CALLERS - 1) {
+        Thread.onSpinWait();
+      }
+      release.countDown();
+
+      for (var future : futures) {
+        assertThat(future.get()).isEqualTo("value");
+      }
+    }
+
+    assertThat(loaderCalls.get()).isEqualTo(1);
+    assertThat(singleFlight.getLoads()).isEqualTo(1);
+
+    // the next caller loads anew
+    assertThat(singleFlight.load("key", () -> "new value")).isEqualTo("new value");
+  }
+
+  @Test
+  void testFailureIsRethrownToEveryCaller() throws Exception {
+
+    var singleFlight = new SingleFlight<String, String>(Duration.ofSeconds(5));
+    var failure = new IllegalStateException("database down");
+    var release = new CountDownLatch(1);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var futures = new ArrayList<Future<String>>();
+      for (int i = 0; i < CALLERS; i++) {
+        futures.add(executor.submit(() -> singleFlight.load("key", () -> {
+          await(release);
+          throw failure;
+        })));
+      }
+      while (singleFlight.getCoalesced() < CALLERS - 1) {
+        Thread.onSpinWait();
+      }
+      release.countDown();
+
+      for (var future : futures) {
+        assertThatExceptionOfType(ExecutionException.class)
+            .isThrownBy(future::get)
+            .withCause(failure);
+      }
+    }
+  }
+
+  @Test
+  void testWaitingCallersTimeOut() throws Exception {
+
+    var singleFlight = new SingleFlight<String, String>(Duration.ofMillis(50));
+    var release = new CountDownLatch(1);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var leader = executor.submit(() -> singleFlight.load("key", () -> {
+        await(release);
+        return "value";
+      }));
+      while (singleFlight.getLoads() == 0) {
+        Thread.onSpinWait();
+      }
+
+      // a load hanging in the database does not hold its followers forever
+      assertThatExceptionOfType(QueryTimeoutException.class)
+          .isThrownBy(() -> singleFlight.load("key", () -> "other value"));
+
+      release.countDown();
+      assertThat(leader.get()).isEqualTo("value");
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}